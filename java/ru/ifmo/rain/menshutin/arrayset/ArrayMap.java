@@ -0,0 +1,278 @@
+package ru.ifmo.rain.menshutin.arrayset;
+
+import java.util.*;
+
+/**
+ * Immutable {@link NavigableMap} that stores keys and values in parallel lists.
+ * Key lookups are done by the {@link ArraySet} over the keys, the value is then taken
+ * by the same index, so every lookup costs a single binary search.
+ * Sub maps and the descending map are views sharing the underlying lists.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+public class ArrayMap<K extends Comparable, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    private final List<K> keys;
+    private final List<V> values;
+    private final ArraySet<K> keySet;
+    private final Comparator<? super K> comparator;
+
+    public ArrayMap() {
+        this(Collections.emptyList(), Collections.emptyList(), null);
+    }
+
+    public ArrayMap(Map<? extends K, ? extends V> other) {
+        this(other, null);
+    }
+
+    /**
+     * Creates map containing mappings of the given map ordered by the given comparator.
+     * Entries are sorted once; if several keys are equal according to the comparator,
+     * the mapping encountered last wins.
+     *
+     * @param other      mappings to be placed into this map
+     * @param comparator key comparator or {@code null} for natural ordering
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayMap(Map<? extends K, ? extends V> other, Comparator<? super K> comparator) {
+        final Map.Entry<K, V>[] entries = other.entrySet().toArray((Map.Entry<K, V>[]) new Map.Entry<?, ?>[0]);
+        final Comparator<Map.Entry<K, V>> byKey = comparator == null
+                ? (a, b) -> Objects.requireNonNull(a.getKey()).compareTo(Objects.requireNonNull(b.getKey()))
+                : (a, b) -> comparator.compare(a.getKey(), b.getKey());
+        Arrays.sort(entries, byKey);
+
+        final List<K> sortedKeys = new ArrayList<>(entries.length);
+        final List<V> sortedValues = new ArrayList<>(entries.length);
+        for (int i = 0; i < entries.length; i++) {
+            if (i + 1 < entries.length && byKey.compare(entries[i], entries[i + 1]) == 0) {
+                continue;
+            }
+            sortedKeys.add(entries[i].getKey());
+            sortedValues.add(entries[i].getValue());
+        }
+
+        this.keys = sortedKeys;
+        this.values = sortedValues;
+        this.comparator = comparator;
+        this.keySet = new ArraySet<>(sortedKeys, comparator);
+    }
+
+    private ArrayMap(List<K> keys, List<V> values, Comparator<? super K> comparator) {
+        this.keys = keys;
+        this.values = values;
+        this.comparator = comparator;
+        this.keySet = new ArraySet<>(keys, comparator);
+    }
+
+    private Map.Entry<K, V> entryOrNull(int index) {
+        return (index < 0 || index >= size()) ? null : new SimpleImmutableEntry<>(keys.get(index), values.get(index));
+    }
+
+    private K keyOrNull(int index) {
+        return (index < 0 || index >= size()) ? null : keys.get(index);
+    }
+
+    private ArrayMap<K, V> slice(int fromIndex, int toIndex) {
+        if (toIndex < fromIndex) {
+            toIndex = fromIndex;
+        }
+        return new ArrayMap<>(keys.subList(fromIndex, toIndex), values.subList(fromIndex, toIndex), comparator);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(K first, K second) {
+        return comparator != null ? comparator.compare(first, second) : first.compareTo(second);
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean containsKey(Object key) {
+        return keySet.binarySearch((K) key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Object key) {
+        int index = keySet.binarySearch((K) key);
+        return index >= 0 ? values.get(index) : null;
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return entryOrNull(keySet.lowerIndex(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOrNull(keySet.lowerIndex(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return entryOrNull(keySet.floorIndex(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOrNull(keySet.floorIndex(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return entryOrNull(keySet.ceilingIndex(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOrNull(keySet.ceilingIndex(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return entryOrNull(keySet.higherIndex(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOrNull(keySet.higherIndex(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return entryOrNull(0);
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return entryOrNull(size() - 1);
+    }
+
+    @Override
+    public K firstKey() {
+        return keySet.first();
+    }
+
+    @Override
+    public K lastKey() {
+        return keySet.last();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new ArrayMap<>(new ReverseListView<>(keys), new ReverseListView<>(values),
+                              Collections.reverseOrder(comparator));
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return keySet;
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+        return keySet;
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return keySet.descendingSet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableList(values);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new Iterator<>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < keys.size();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return entryOrNull(index++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+
+    /**
+     * Returns a view of the portion of this map whose keys range from
+     * {@code fromKey} to {@code toKey}.
+     *
+     * @throws IllegalArgumentException if {@code fromKey} is greater than {@code toKey}
+     */
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (compare(fromKey, toKey) > 0) {
+            throw new IllegalArgumentException();
+        }
+        int fromIndex = fromInclusive ? keySet.ceilingIndex(fromKey) : keySet.higherIndex(fromKey);
+        int toIndex = toInclusive ? keySet.floorIndex(toKey) : keySet.lowerIndex(toKey);
+        return slice(fromIndex, toIndex + 1);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        int index = inclusive ? keySet.floorIndex(toKey) : keySet.lowerIndex(toKey);
+        return slice(0, index + 1);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        int index = inclusive ? keySet.ceilingIndex(fromKey) : keySet.higherIndex(fromKey);
+        return slice(index, size());
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+}
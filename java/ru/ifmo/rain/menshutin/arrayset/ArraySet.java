@@ -1,10 +1,12 @@
 package ru.ifmo.rain.menshutin.arrayset;
 
 import java.util.*;
+import java.util.function.ToDoubleFunction;
 
 public class ArraySet<E extends Comparable> extends AbstractSet<E> implements NavigableSet<E> {
     private List<E> elements;
     private Comparator<? super E> comparator;
+    private LearnedIndex<E> index;
 
     public ArraySet() {
         elements = Collections.emptyList();
@@ -22,6 +24,21 @@ public class ArraySet<E extends Comparable> extends AbstractSet<E> implements Na
         this.comparator = comparator;
     }
 
+    /**
+     * Creates set with a learned index for lookups. Intended for large static sets
+     * with smoothly distributed keys: instead of a binary search over the whole set,
+     * a piecewise-linear model predicts the position of an element and only a small
+     * window around it is searched. Views of this set use plain binary search.
+     *
+     * @param other       elements of the set
+     * @param comparator  element comparator or {@code null} for natural ordering
+     * @param keyFunction numeric projection of elements, monotone with respect to the set order
+     */
+    public ArraySet(Collection<? extends E> other, Comparator<? super E> comparator,
+                    ToDoubleFunction<? super E> keyFunction) {
+        this(other, comparator);
+        index = new LearnedIndex<>(elements, keyFunction, LearnedIndex.DEFAULT_ERROR);
+    }
 
     public ArraySet(List<E> elements, Comparator<? super E> comparator) {
         this.elements = elements;
@@ -51,7 +68,7 @@ public class ArraySet<E extends Comparable> extends AbstractSet<E> implements Na
         return getElementOrNull(index);
     }
 
-    private int lowerIndex(E e) {
+    int lowerIndex(E e) {
         int index = binarySearch(e);
         return getIndex(index, -1, -1);
     }
@@ -74,7 +91,7 @@ public class ArraySet<E extends Comparable> extends AbstractSet<E> implements Na
         return getElementOrNull(index);
     }
 
-    private int floorIndex(E e) {
+    int floorIndex(E e) {
         int index = binarySearch(e);
         return getIndex(index, 0, -1);
 
@@ -98,7 +115,7 @@ public class ArraySet<E extends Comparable> extends AbstractSet<E> implements Na
         return getElementOrNull(index);
     }
 
-    private int ceilingIndex(E e) {
+    int ceilingIndex(E e) {
         int index = binarySearch(e);
         return getIndex(index, 0, 0);
     }
@@ -121,7 +138,7 @@ public class ArraySet<E extends Comparable> extends AbstractSet<E> implements Na
         return getElementOrNull(index);
     }
 
-    private int higherIndex(E e) {
+    int higherIndex(E e) {
         int index = binarySearch(e);
         return getIndex(index, 1, 0);
     }
@@ -158,6 +175,23 @@ public class ArraySet<E extends Comparable> extends AbstractSet<E> implements Na
         return Collections.unmodifiableCollection(elements).iterator();
     }
 
+    /**
+     * Creates a {@link Spliterator} over the elements in this set.
+     * The spliterator splits by index into halves and reports
+     * {@link Spliterator#SIZED}, {@link Spliterator#SUBSIZED}, {@link Spliterator#ORDERED},
+     * {@link Spliterator#SORTED}, {@link Spliterator#DISTINCT} and {@link Spliterator#IMMUTABLE}.
+     *
+     * @return a {@code Spliterator} over the elements in this set
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        if (!(elements instanceof RandomAccess)) {
+            return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT
+                    | Spliterator.IMMUTABLE);
+        }
+        return new ListSpliterator<>(elements, comparator);
+    }
+
     /**
      * Returns a reverse order view of the elements contained in this set.
      * The descending set is backed by this set, so changes to the set are
@@ -407,7 +441,10 @@ public class ArraySet<E extends Comparable> extends AbstractSet<E> implements Na
         return elements.size();
     }
 
-    private int binarySearch(E e) {
+    int binarySearch(E e) {
+        if (index != null) {
+            return index.search(elements, Objects.requireNonNull(e), comparator);
+        }
         return (Collections.binarySearch(elements, Objects.requireNonNull(e), comparator));
     }
 
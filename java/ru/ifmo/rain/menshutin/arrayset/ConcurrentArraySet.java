@@ -0,0 +1,361 @@
+package ru.ifmo.rain.menshutin.arrayset;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe copy-on-write {@link NavigableSet} backed by immutable {@link ArraySet} snapshots.
+ * <p>
+ * Readers work with the current snapshot and never lock. Writers are serialized, build a new
+ * sorted array by merging the current snapshot with their changes and publish it atomically.
+ * Bulk operations ({@link #addAll(Collection)}, {@link #removeAll(Collection)}) apply the whole
+ * batch in a single rebuild, so they should be preferred to repeated single-element updates.
+ * <p>
+ * Iterators and views ({@link #subSet}, {@link #headSet}, {@link #tailSet}, {@link #descendingSet})
+ * reflect the snapshot taken at the moment they were created and are read-only.
+ *
+ * @param <E> the type of elements maintained by this set
+ */
+public class ConcurrentArraySet<E extends Comparable> extends AbstractSet<E> implements NavigableSet<E> {
+    private final Comparator<? super E> comparator;
+    private final Object writeLock = new Object();
+    private volatile ArraySet<E> snapshot;
+
+    public ConcurrentArraySet() {
+        this(Collections.emptyList(), null);
+    }
+
+    public ConcurrentArraySet(Comparator<? super E> comparator) {
+        this(Collections.emptyList(), comparator);
+    }
+
+    public ConcurrentArraySet(Collection<? extends E> other) {
+        this(other, null);
+    }
+
+    public ConcurrentArraySet(Collection<? extends E> other, Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        snapshot = new ArraySet<>(other, comparator);
+    }
+
+    /**
+     * Returns the current immutable snapshot of this set.
+     * Several lookups made on the returned set are guaranteed to observe the same state.
+     *
+     * @return current snapshot
+     */
+    public ArraySet<E> snapshot() {
+        return snapshot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E first, E second) {
+        return comparator != null ? comparator.compare(first, second) : first.compareTo(second);
+    }
+
+    private void publish(List<E> elements) {
+        snapshot = new ArraySet<>(elements, comparator);
+    }
+
+    /**
+     * Adds the specified element to this set if it is not already present.
+     *
+     * @param e element to be added to this set
+     * @return {@code true} if this set did not already contain the specified element
+     * @throws NullPointerException if the specified element is null and natural ordering is used
+     */
+    @Override
+    public boolean add(E e) {
+        return addAll(Collections.singletonList(comparator == null ? Objects.requireNonNull(e) : e));
+    }
+
+    /**
+     * Adds all of the elements in the specified collection to this set.
+     * The batch is sorted once and merged with the current snapshot,
+     * publishing a single new snapshot.
+     *
+     * @param c collection containing elements to be added to this set
+     * @return {@code true} if this set changed as a result of the call
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        if (c.isEmpty()) {
+            return false;
+        }
+        final ArraySet<E> batch = new ArraySet<>(c, comparator);
+        synchronized (writeLock) {
+            final ArraySet<E> current = snapshot;
+            final List<E> merged = new ArrayList<>(current.size() + batch.size());
+            final Iterator<E> left = current.iterator();
+            final Iterator<E> right = batch.iterator();
+            boolean hasA = left.hasNext();
+            boolean hasB = right.hasNext();
+            E a = hasA ? left.next() : null;
+            E b = hasB ? right.next() : null;
+            boolean changed = false;
+            while (hasA && hasB) {
+                int cmp = compare(a, b);
+                if (cmp <= 0) {
+                    merged.add(a);
+                    hasA = left.hasNext();
+                    a = hasA ? left.next() : null;
+                    if (cmp == 0) {
+                        hasB = right.hasNext();
+                        b = hasB ? right.next() : null;
+                    }
+                } else {
+                    merged.add(b);
+                    changed = true;
+                    hasB = right.hasNext();
+                    b = hasB ? right.next() : null;
+                }
+            }
+            if (hasA) {
+                merged.add(a);
+                left.forEachRemaining(merged::add);
+            }
+            if (hasB) {
+                changed = true;
+                merged.add(b);
+                right.forEachRemaining(merged::add);
+            }
+            if (changed) {
+                publish(merged);
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Removes the specified element from this set if it is present.
+     *
+     * @param o object to be removed from this set, if present
+     * @return {@code true} if this set contained the specified element
+     */
+    @Override
+    public boolean remove(Object o) {
+        return removeAll(Collections.singletonList(o));
+    }
+
+    /**
+     * Removes from this set all of its elements that are contained in the specified collection.
+     * The batch is sorted once and merged with the current snapshot,
+     * publishing a single new snapshot.
+     *
+     * @param c collection containing elements to be removed from this set
+     * @return {@code true} if this set changed as a result of the call
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c.isEmpty()) {
+            return false;
+        }
+        final ArraySet<E> batch = new ArraySet<>((Collection<? extends E>) c, comparator);
+        synchronized (writeLock) {
+            final ArraySet<E> current = snapshot;
+            final List<E> merged = new ArrayList<>(current.size());
+            final Iterator<E> right = batch.iterator();
+            boolean hasB = right.hasNext();
+            E b = hasB ? right.next() : null;
+            for (E a : current) {
+                while (hasB && compare(b, a) < 0) {
+                    hasB = right.hasNext();
+                    b = hasB ? right.next() : null;
+                }
+                if (!hasB || compare(b, a) != 0) {
+                    merged.add(a);
+                }
+            }
+            if (merged.size() == current.size()) {
+                return false;
+            }
+            publish(merged);
+            return true;
+        }
+    }
+
+    /**
+     * Retains only the elements in this set that are contained in the specified collection.
+     *
+     * @param c collection containing elements to be retained in this set
+     * @return {@code true} if this set changed as a result of the call
+     */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return removeIf(e -> !c.contains(e));
+    }
+
+    /**
+     * Removes all of the elements of this set that satisfy the given predicate.
+     *
+     * @param filter a predicate which returns {@code true} for elements to be removed
+     * @return {@code true} if any elements were removed
+     */
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        Objects.requireNonNull(filter);
+        synchronized (writeLock) {
+            final ArraySet<E> current = snapshot;
+            final List<E> retained = new ArrayList<>(current.size());
+            for (E e : current) {
+                if (!filter.test(e)) {
+                    retained.add(e);
+                }
+            }
+            if (retained.size() == current.size()) {
+                return false;
+            }
+            publish(retained);
+            return true;
+        }
+    }
+
+    /**
+     * Removes all of the elements from this set.
+     */
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            publish(Collections.emptyList());
+        }
+    }
+
+    /**
+     * Retrieves and removes the first (lowest) element,
+     * or returns {@code null} if this set is empty.
+     *
+     * @return the first element, or {@code null} if this set is empty
+     */
+    @Override
+    public E pollFirst() {
+        synchronized (writeLock) {
+            final ArraySet<E> current = snapshot;
+            if (current.isEmpty()) {
+                return null;
+            }
+            final E first = current.first();
+            publish(new ArrayList<>(current.tailSet(first, false)));
+            return first;
+        }
+    }
+
+    /**
+     * Retrieves and removes the last (highest) element,
+     * or returns {@code null} if this set is empty.
+     *
+     * @return the last element, or {@code null} if this set is empty
+     */
+    @Override
+    public E pollLast() {
+        synchronized (writeLock) {
+            final ArraySet<E> current = snapshot;
+            if (current.isEmpty()) {
+                return null;
+            }
+            final E last = current.last();
+            publish(new ArrayList<>(current.headSet(last, false)));
+            return last;
+        }
+    }
+
+    @Override
+    public E lower(E e) {
+        return snapshot.lower(e);
+    }
+
+    @Override
+    public E floor(E e) {
+        return snapshot.floor(e);
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return snapshot.ceiling(e);
+    }
+
+    @Override
+    public E higher(E e) {
+        return snapshot.higher(e);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return snapshot.contains(o);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size();
+    }
+
+    @Override
+    public E first() {
+        return snapshot.first();
+    }
+
+    @Override
+    public E last() {
+        return snapshot.last();
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Returns an iterator over the snapshot of this set taken at the moment of the call.
+     *
+     * @return an iterator over the elements of the current snapshot
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return snapshot.iterator();
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return snapshot.spliterator();
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return snapshot.descendingIterator();
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return snapshot.descendingSet();
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        return snapshot.subSet(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        return snapshot.headSet(toElement, inclusive);
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        return snapshot.tailSet(fromElement, inclusive);
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return snapshot.subSet(fromElement, toElement);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return snapshot.headSet(toElement);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return snapshot.tailSet(fromElement);
+    }
+}
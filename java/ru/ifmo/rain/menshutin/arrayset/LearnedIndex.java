@@ -0,0 +1,116 @@
+package ru.ifmo.rain.menshutin.arrayset;
+
+import java.util.*;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Piecewise-linear model of element positions in a sorted list.
+ * <p>
+ * Elements are projected to numbers by a key function that must be monotone with respect
+ * to the list order. The list is cut greedily into segments, each approximated by a line
+ * that predicts a position with an error of at most {@code error}. A lookup finds the segment
+ * by the projected key, predicts a position and binary searches only the small window around it.
+ * If the key function disagrees with the order, lookups fall back to the full binary search,
+ * so results are always the same as of {@link Collections#binarySearch(List, Object, Comparator)}.
+ *
+ * @param <E> the type of elements
+ */
+class LearnedIndex<E> {
+    static final int DEFAULT_ERROR = 16;
+
+    private final ToDoubleFunction<? super E> keyFunction;
+    private final int error;
+    private final int size;
+    private final double[] startKeys;
+    private final int[] startPositions;
+    private final double[] slopes;
+
+    LearnedIndex(List<? extends E> list, ToDoubleFunction<? super E> keyFunction, int error) {
+        this.keyFunction = keyFunction;
+        this.error = error;
+        this.size = list.size();
+
+        final double[] keys = new double[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = keyFunction.applyAsDouble(list.get(i));
+        }
+
+        final List<Integer> starts = new ArrayList<>();
+        final List<Double> segmentSlopes = new ArrayList<>();
+        int start = 0;
+        while (start < size) {
+            double low = 0;
+            double high = Double.POSITIVE_INFINITY;
+            int end = start + 1;
+            for (; end < size; end++) {
+                double dx = keys[end] - keys[start];
+                int dy = end - start;
+                if (dx <= 0) {
+                    if (dy > error) {
+                        break;
+                    }
+                    continue;
+                }
+                double newLow = Math.max(low, (dy - error) / dx);
+                double newHigh = Math.min(high, (dy + error) / dx);
+                if (newLow > newHigh) {
+                    break;
+                }
+                low = newLow;
+                high = newHigh;
+            }
+            starts.add(start);
+            segmentSlopes.add(high == Double.POSITIVE_INFINITY ? low : (low + high) / 2);
+            start = end;
+        }
+
+        startKeys = new double[starts.size()];
+        startPositions = new int[starts.size()];
+        slopes = new double[starts.size()];
+        for (int i = 0; i < starts.size(); i++) {
+            startPositions[i] = starts.get(i);
+            startKeys[i] = keys[startPositions[i]];
+            slopes[i] = segmentSlopes.get(i);
+        }
+    }
+
+    /**
+     * Searches {@code list}, which must be the list this index was built for.
+     *
+     * @return the same value as {@link Collections#binarySearch(List, Object, Comparator)}
+     */
+    int search(List<? extends E> list, E e, Comparator<? super E> comparator) {
+        if (size == 0) {
+            return -1;
+        }
+        double key = keyFunction.applyAsDouble(e);
+        if (Double.isNaN(key)) {
+            return Collections.binarySearch(list, e, comparator);
+        }
+
+        int segment = Arrays.binarySearch(startKeys, key);
+        if (segment < 0) {
+            segment = Math.max(0, -segment - 2);
+        } else {
+            while (segment > 0 && startKeys[segment - 1] == key) {
+                segment--;
+            }
+        }
+
+        double predicted = startPositions[segment] + slopes[segment] * (key - startKeys[segment]);
+        int last = segment + 1 < startPositions.length ? startPositions[segment + 1] : size - 1;
+        int position = (int) Math.max(startPositions[segment], Math.min(last, Math.round(predicted)));
+        int from = Math.max(0, position - error - 1);
+        int to = Math.min(size, position + error + 2);
+
+        int result = Collections.binarySearch(list.subList(from, to), e, comparator);
+        if (result >= 0) {
+            return from + result;
+        }
+        int insertion = -result - 1;
+        if ((insertion == 0 && from > 0) || (insertion == to - from && to < size)) {
+            return Collections.binarySearch(list, e, comparator);
+        }
+        return -(from + insertion) - 1;
+    }
+}
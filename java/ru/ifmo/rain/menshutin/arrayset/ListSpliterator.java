@@ -0,0 +1,79 @@
+package ru.ifmo.rain.menshutin.arrayset;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Index-based spliterator over a sorted random access list. Splits the range in halves,
+ * so parallel streams over {@link ArraySet} and its views get balanced work.
+ *
+ * @param <E> the type of elements
+ */
+class ListSpliterator<E> implements Spliterator<E> {
+    private static final int CHARACTERISTICS = SIZED | SUBSIZED | ORDERED | SORTED
+            | DISTINCT | IMMUTABLE;
+
+    private final List<E> list;
+    private final Comparator<? super E> comparator;
+    private int index;
+    private final int fence;
+
+    ListSpliterator(List<E> list, Comparator<? super E> comparator) {
+        this(list, comparator, 0, list.size());
+    }
+
+    private ListSpliterator(List<E> list, Comparator<? super E> comparator, int index, int fence) {
+        this.list = list;
+        this.comparator = comparator;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        if (index >= fence) {
+            return false;
+        }
+        action.accept(list.get(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (int i = index; i < fence; i++) {
+            action.accept(list.get(i));
+        }
+        index = fence;
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        int mid = (index + fence) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        Spliterator<E> prefix = new ListSpliterator<>(list, comparator, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    @Override
+    public Comparator<? super E> getComparator() {
+        return comparator;
+    }
+}
@@ -2,8 +2,9 @@ package ru.ifmo.rain.menshutin.arrayset;
 
 import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
-public class ReverseListView<E> extends AbstractList<E> {
+public class ReverseListView<E> extends AbstractList<E> implements RandomAccess {
     private List<E> view;
     private boolean isReversed;
 
@@ -4,8 +4,23 @@ import info.kgeorgiy.java.advanced.concurrent.ListIP;
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Predicate;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -13,26 +28,162 @@ import java.util.stream.Stream;
 public class IterativeParallelism implements ListIP {
 
     private final ParallelMapper mapper;
+    private final ExecutorService executor;
 
     public IterativeParallelism(ParallelMapper mapper) {
         this.mapper = mapper;
+        this.executor = null;
+    }
+
+    /**
+     * Creates instance running segments on the given executor.
+     * The {@code threads} argument of operations is then a parallelism hint: the number of segments
+     * submitted to the executor, while the number of threads is defined by the executor itself.
+     *
+     * @param executor executor to run segments on
+     */
+    public IterativeParallelism(ExecutorService executor) {
+        this.mapper = null;
+        this.executor = executor;
     }
 
     public IterativeParallelism() {
         mapper = null;
+        executor = null;
+    }
+
+    /**
+     * Creates instance for predicates and functions that block (caches, I/O).
+     * Every segment gets its own thread from a shared pool of reusable daemon threads,
+     * so blocked segments do not hold back the others and no thread is created per query.
+     *
+     * @return instance for blocking tasks
+     */
+    public static IterativeParallelism forBlockingTasks() {
+        return new IterativeParallelism(SharedExecutors.BLOCKING);
+    }
+
+    /**
+     * Creates instance for CPU-bound tasks.
+     * Segments run on a shared pool of daemon threads sized to the number of available processors.
+     *
+     * @return instance for CPU-bound tasks
+     */
+    public static IterativeParallelism forCpuBoundTasks() {
+        return new IterativeParallelism(SharedExecutors.CPU_BOUND);
+    }
+
+    private static class SharedExecutors {
+        static final ExecutorService BLOCKING = Executors.newCachedThreadPool(SharedExecutors::daemon);
+        static final ExecutorService CPU_BOUND = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), SharedExecutors::daemon);
+
+        private static Thread daemon(Runnable runnable) {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Contiguous part of the processed list.
+     *
+     * @param <T> element type
+     */
+    private static class Segment<T> {
+        final int index;
+        final int from;
+        final List<? extends T> values;
+
+        Segment(int index, int from, List<? extends T> values) {
+            this.index = index;
+            this.from = from;
+            this.values = values;
+        }
+
+        Stream<? extends T> stream() {
+            return values.stream();
+        }
+    }
+
+    /**
+     * Contiguous range of indices of the processed array.
+     */
+    private static class Range {
+        final int index;
+        final int from;
+        final int to;
+
+        Range(int index, int from, int to) {
+            this.index = index;
+            this.from = from;
+            this.to = to;
+        }
     }
 
-    private static <T> List<Stream<? extends T>> split(final int threads, final List<? extends T> list) {
-        final int n = Math.min(threads, list.size());
-        final int len = list.size() / n;
-        int g = list.size() % n;
-        List<Stream<? extends T>> subStreams = new ArrayList<>();
-        for (int cur = 0; cur < list.size(); g--) {
+    private static List<Range> ranges(final int threads, final int size) {
+        final int n = Math.max(1, Math.min(threads, size));
+        final int len = size / n;
+        int g = size % n;
+        final List<Range> ranges = new ArrayList<>(n);
+        for (int cur = 0; ranges.isEmpty() || cur < size; g--) {
             final int prev = cur;
             cur += len + (g > 0 ? 1 : 0);
-            subStreams.add(list.subList(prev, cur).stream());
+            ranges.add(new Range(ranges.size(), prev, cur));
+        }
+        return ranges;
+    }
+
+    private static <T> List<Segment<T>> split(final int threads, List<? extends T> list) {
+        if (!(list instanceof RandomAccess)) {
+            list = new ArrayList<>(list);
+        }
+        final List<Segment<T>> segments = new ArrayList<>();
+        for (final Range range : ranges(threads, list.size())) {
+            segments.add(new Segment<>(range.index, range.from, list.subList(range.from, range.to)));
+        }
+        return segments;
+    }
+
+    /**
+     * Number of references in a 64-byte cache line with compressed references.
+     * Chunk sizes are multiples of it, so neighbouring chunks do not share lines of the result arrays.
+     */
+    private static final int GRAIN = 16;
+    private static final int CHUNKS_PER_THREAD = 8;
+
+    /**
+     * Source of chunks of a list pulled by workers. Long lists are cut into several chunks per thread,
+     * so a worker that got cheap elements takes more chunks and skewed costs do not leave workers idle.
+     * Lists shorter than {@link #CHUNKS_PER_THREAD} grains per thread are cut into one chunk per thread.
+     *
+     * @param <T> element type
+     */
+    private static class Chunks<T> {
+        final List<? extends T> list;
+        final int size;
+        final int count;
+        final int workers;
+        private final AtomicInteger next = new AtomicInteger();
+
+        Chunks(int threads, List<? extends T> list) {
+            this.list = list instanceof RandomAccess ? list : new ArrayList<>(list);
+            threads = Math.max(1, threads);
+            final int perThread = Math.max(1, (list.size() + threads - 1) / threads);
+            this.size = perThread < CHUNKS_PER_THREAD * GRAIN
+                    ? perThread
+                    : (perThread / CHUNKS_PER_THREAD + GRAIN - 1) / GRAIN * GRAIN;
+            this.count = Math.max(1, (list.size() + size - 1) / size);
+            this.workers = Math.min(threads, count);
+        }
+
+        Segment<T> next() {
+            final int from = next.getAndAdd(size);
+            if (from >= list.size() && (from > 0 || !list.isEmpty())) {
+                return null;
+            }
+            return new Segment<>(from / size, from, list.subList(from, Math.min(list.size(), from + size)));
         }
-        return subStreams;
     }
 
     private static void joinThreads(final List<Thread> threads) throws InterruptedException {
@@ -52,30 +203,117 @@ public class IterativeParallelism implements ListIP {
         }
     }
 
-    private <T, R> R baseSupply(int threads, final List<? extends T> list,
-                                final Function<Stream<? extends T>, ? extends R> function,
-                                final Function<? super Stream<R>, R> resultCollector) throws InterruptedException {
+    private <S, R> List<R> runOnExecutor(final Function<? super S, ? extends R> function,
+                                         final List<? extends S> segments) throws InterruptedException {
+        final List<Future<R>> futures = executor.invokeAll(segments.stream()
+                                                                   .<Callable<R>>map(segment -> () -> function.apply(segment))
+                                                                   .collect(Collectors.toList()));
+        final List<R> result = new ArrayList<>(futures.size());
+        for (final Future<R> future : futures) {
+            try {
+                result.add(future.get());
+            } catch (ExecutionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Throws {@code cause} if it is an unchecked exception, otherwise returns it wrapped.
+     */
+    private static RuntimeException rethrow(final Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    private <S, R> List<R> execute(final List<? extends S> segments,
+                                   final Function<? super S, ? extends R> function) throws InterruptedException {
         final List<R> result;
-        final List<Stream<? extends T>> subStreams = split(threads, list);
         if (mapper != null) {
-            result = mapper.map(function, subStreams);
+            result = mapper.map(function, segments);
+        } else if (executor != null) {
+            result = runOnExecutor(function, segments);
         } else {
 
-            result = new ArrayList<>(Collections.nCopies(subStreams.size(), null));
-            final List<Thread> myThreads = IntStream.range(0, subStreams.size())
-                                                    .mapToObj(threadPosition ->
-                                                                      new Thread(() -> result.set(threadPosition,
-                                                                                                  function.apply(subStreams.get(threadPosition)))))
+            result = new ArrayList<>(Collections.nCopies(segments.size(), null));
+            final Throwable[] failure = new Throwable[1];
+            final List<Thread> myThreads = IntStream.range(0, segments.size())
+                                                    .mapToObj(threadPosition -> new Thread(() -> {
+                                                        try {
+                                                            result.set(threadPosition, function.apply(segments.get(threadPosition)));
+                                                        } catch (Throwable e) {
+                                                            synchronized (failure) {
+                                                                if (failure[0] == null) {
+                                                                    failure[0] = e;
+                                                                } else {
+                                                                    failure[0].addSuppressed(e);
+                                                                }
+                                                            }
+                                                        }
+                                                    }))
                                                     .collect(Collectors.toList());
             myThreads.forEach(Thread::start);
             joinThreads(myThreads);
+            synchronized (failure) {
+                if (failure[0] != null) {
+                    throw rethrow(failure[0]);
+                }
+            }
         }
+        return result;
+    }
+
+    /**
+     * Applies {@code function} to chunks of {@code list} pulled by {@code threads} workers.
+     *
+     * @return results of chunks in list order
+     */
+    private <T, R> List<R> chunked(int threads, final List<? extends T> list,
+                                   final Function<Segment<T>, ? extends R> function) throws InterruptedException {
+        final Chunks<T> chunks = new Chunks<>(threads, list);
+        final Object[] results = new Object[chunks.count];
+        execute(Collections.nCopies(chunks.workers, chunks), source -> {
+            Segment<T> chunk;
+            while ((chunk = source.next()) != null) {
+                results[chunk.index] = function.apply(chunk);
+            }
+            return null;
+        });
+        return asList(results);
+    }
 
+    private <T, M, R> R baseSupply(int threads, final List<? extends T> list,
+                                   final Function<Segment<T>, ? extends M> function,
+                                   final Function<? super Stream<M>, R> resultCollector) throws InterruptedException {
+        final List<M> result = chunked(threads, list, function);
         return resultCollector.apply(result.stream());
     }
 
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asList(final Object[] array) {
+        return (List<T>) Arrays.asList(array);
+    }
+
+    private static class JoinPart {
+        final String[] strings;
+        final long length;
+
+        JoinPart(String[] strings, long length) {
+            this.strings = strings;
+            this.length = length;
+        }
+    }
+
     /**
      * Join values to string.
+     * Segments convert their values to strings and measure them, then copy the strings in parallel
+     * into a single buffer allocated once at offsets given by prefix sums of the lengths.
      *
      * @param threads number of concurrent threads.
      * @param values  values to join.
@@ -84,13 +322,41 @@ public class IterativeParallelism implements ListIP {
      */
     @Override
     public String join(int threads, List<?> values) throws InterruptedException {
-        Function<Stream<?>, String> function = s -> s.map(Object::toString).collect(Collectors.joining());
-        Function<Stream<String>, String> merger = s -> s.collect(Collectors.joining());
-        return baseSupply(threads, values, function, merger);
+        final List<Segment<Object>> segments = split(threads, values);
+        final List<JoinPart> parts = execute(segments, s -> {
+            final String[] strings = new String[s.values.size()];
+            long length = 0;
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = s.values.get(i).toString();
+                length += strings[i].length();
+            }
+            return new JoinPart(strings, length);
+        });
+
+        final long[] offsets = new long[segments.size() + 1];
+        for (int i = 0; i < segments.size(); i++) {
+            offsets[i + 1] = offsets[i] + parts.get(i).length;
+        }
+        if (offsets[segments.size()] > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError("Joined string is too long: " + offsets[segments.size()]);
+        }
+
+        final char[] buffer = new char[(int) offsets[segments.size()]];
+        execute(segments, s -> {
+            int position = (int) offsets[s.index];
+            for (final String string : parts.get(s.index).strings) {
+                string.getChars(0, string.length(), buffer, position);
+                position += string.length();
+            }
+            return null;
+        });
+        return new String(buffer);
     }
 
     /**
      * Filters values by predicate.
+     * Segments first mark matching values and count them, then copy them in parallel
+     * into a single presized array at offsets given by prefix sums of the counts.
      *
      * @param threads   number of concurrent threads.
      * @param values    values to filter.
@@ -100,13 +366,34 @@ public class IterativeParallelism implements ListIP {
      */
     @Override
     public <T> List<T> filter(int threads, List<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
-        Function<Stream<? extends T>, List<T>> function = s -> s.filter(predicate).collect(Collectors.toList());
-        Function<Stream<List<T>>, List<T>> merger = s -> s.flatMap(List::stream).collect(Collectors.toList());
-        return baseSupply(threads, values, function, merger);
+        final List<Segment<T>> segments = split(threads, values);
+        final List<BitSet> masks = execute(segments, s -> {
+            final BitSet mask = new BitSet(s.values.size());
+            for (int i = 0; i < s.values.size(); i++) {
+                if (predicate.test(s.values.get(i))) {
+                    mask.set(i);
+                }
+            }
+            return mask;
+        });
+
+        final int[] offsets = offsets(masks);
+
+        final Object[] result = new Object[offsets[segments.size()]];
+        execute(segments, s -> {
+            final BitSet mask = masks.get(s.index);
+            int position = offsets[s.index];
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                result[position++] = s.values.get(i);
+            }
+            return null;
+        });
+        return asList(result);
     }
 
     /**
      * Maps values.
+     * Every chunk writes its results directly into a single presized array.
      *
      * @param threads number of concurrent threads.
      * @param values  values to filter.
@@ -116,16 +403,21 @@ public class IterativeParallelism implements ListIP {
      */
     @Override
     public <T, U> List<U> map(int threads, List<? extends T> values, Function<? super T, ? extends U> f) throws InterruptedException {
-        Function<Stream<? extends T>, List<U>> function = s -> s.map(f)
-                                                                .collect(Collectors.toList());
-
-        Function<Stream<List<U>>, List<U>> merger = s -> s.flatMap(List::stream)
-                                                          .collect(Collectors.toList());
-        return baseSupply(threads, values, function, merger);
+        final Object[] result = new Object[values.size()];
+        chunked(threads, values, s -> {
+            for (int i = 0; i < s.values.size(); i++) {
+                result[s.from + i] = f.apply(s.values.get(i));
+            }
+            return null;
+        });
+        return asList(result);
     }
 
     /**
      * Returns maximum value.
+     * Every worker keeps a single running maximum over all chunks it takes,
+     * so only one comparison per worker is added by the final merge.
+     * If there are several maximal values, the first one is returned.
      *
      * @param threads    number or concurrent threads.
      * @param values     values to get maximum of.
@@ -137,12 +429,56 @@ public class IterativeParallelism implements ListIP {
      */
     @Override
     public <T> T maximum(int threads, List<? extends T> values, Comparator<? super T> comparator) throws InterruptedException {
-        Function<Stream<? extends T>, T> function = s -> s.max(comparator).orElse(null);
-        return baseSupply(threads, values, function, function);
+        final Chunks<T> chunks = new Chunks<>(threads, values);
+        final List<Candidate<T>> results = execute(Collections.nCopies(chunks.workers, chunks), source -> {
+            Candidate<T> result = null;
+            Segment<T> chunk;
+            while ((chunk = source.next()) != null) {
+                for (int i = 0; i < chunk.values.size(); i++) {
+                    final T value = chunk.values.get(i);
+                    if (result == null || comparator.compare(value, result.value) > 0) {
+                        result = new Candidate<>(chunk.from + i, value);
+                    }
+                }
+            }
+            return result;
+        });
+
+        Candidate<T> result = null;
+        for (final Candidate<T> candidate : results) {
+            if (candidate == null) {
+                continue;
+            }
+            final int c = result == null ? 1 : comparator.compare(candidate.value, result.value);
+            if (c > 0 || c == 0 && candidate.position < result.position) {
+                result = candidate;
+            }
+        }
+        if (result == null) {
+            throw new NoSuchElementException();
+        }
+        return result.value;
+    }
+
+    /**
+     * Value together with its position in the list.
+     * Workers take chunks in no particular order, so ties between workers are broken by position.
+     *
+     * @param <T> value type
+     */
+    private static class Candidate<T> {
+        final int position;
+        final T value;
+
+        Candidate(int position, T value) {
+            this.position = position;
+            this.value = value;
+        }
     }
 
     /**
      * Returns minimum value.
+     * If there are several minimal values, the first one is returned.
      *
      * @param threads    number or concurrent threads.
      * @param values     values to get minimum of.
@@ -157,8 +493,168 @@ public class IterativeParallelism implements ListIP {
         return maximum(threads, values, comparator.reversed());
     }
 
+    /**
+     * Returns {@code k} greatest values in descending order.
+     * Every worker keeps a heap of at most {@code k} greatest values of the chunks it takes,
+     * the heaps are then merged, so only {@code O(n log k)} comparisons are made.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to select from.
+     * @param k          number of values to return.
+     * @param comparator value comparator.
+     * @param <T>        value type.
+     * @return list of {@code min(k, values.size())} greatest values, greatest first.
+     * @throws InterruptedException     if executing thread was interrupted.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public <T> List<T> topK(int threads, List<? extends T> values, int k, Comparator<? super T> comparator) throws InterruptedException {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative k: " + k);
+        }
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+        final Chunks<T> chunks = new Chunks<>(threads, values);
+        final List<PriorityQueue<T>> heaps = execute(Collections.nCopies(chunks.workers, chunks), source -> {
+            final PriorityQueue<T> heap = new PriorityQueue<>(comparator);
+            Segment<T> chunk;
+            while ((chunk = source.next()) != null) {
+                for (final T value : chunk.values) {
+                    offer(heap, value, k, comparator);
+                }
+            }
+            return heap;
+        });
+
+        final PriorityQueue<T> top = heaps.get(0);
+        for (int i = 1; i < heaps.size(); i++) {
+            for (final T value : heaps.get(i)) {
+                offer(top, value, k, comparator);
+            }
+        }
+        final List<T> result = new ArrayList<>(top);
+        result.sort(comparator.reversed());
+        return result;
+    }
+
+    private static <T> void offer(PriorityQueue<T> heap, T value, int k, Comparator<? super T> comparator) {
+        if (heap.size() < k) {
+            heap.add(value);
+        } else if (comparator.compare(value, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(value);
+        }
+    }
+
+    private static final int SEQUENTIAL_SELECT = 1 << 12;
+
+    /**
+     * Returns the {@code k}-th smallest value, counting from zero.
+     * Uses parallel quickselect: values are counted against a random pivot in parallel
+     * and only the part containing the answer is kept for the next round, until it is small
+     * enough to be sorted. Expected number of comparisons is linear.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to select from.
+     * @param k          index of the value in sorted order.
+     * @param comparator value comparator.
+     * @param <T>        value type.
+     * @return {@code k}-th smallest value.
+     * @throws InterruptedException      if executing thread was interrupted.
+     * @throws IndexOutOfBoundsException if {@code k} is out of range {@code [0, values.size())}.
+     */
+    public <T> T select(int threads, List<? extends T> values, int k, Comparator<? super T> comparator) throws InterruptedException {
+        Objects.checkIndex(k, values.size());
+        List<? extends T> candidates = values;
+        while (candidates.size() > SEQUENTIAL_SELECT) {
+            final T pivot = pivot(candidates, comparator);
+            final List<int[]> counts = chunked(threads, candidates, s -> {
+                final int[] count = new int[2];
+                for (final T value : s.values) {
+                    final int c = comparator.compare(value, pivot);
+                    if (c < 0) {
+                        count[0]++;
+                    } else if (c == 0) {
+                        count[1]++;
+                    }
+                }
+                return count;
+            });
+            final int less = counts.stream().mapToInt(count -> count[0]).sum();
+            final int equal = counts.stream().mapToInt(count -> count[1]).sum();
+
+            if (k < less) {
+                candidates = filter(threads, candidates, value -> comparator.compare(value, pivot) < 0);
+            } else if (k < less + equal) {
+                return pivot;
+            } else {
+                k -= less + equal;
+                candidates = filter(threads, candidates, value -> comparator.compare(value, pivot) > 0);
+            }
+        }
+        final List<T> rest = new ArrayList<>(candidates);
+        rest.sort(comparator);
+        return rest.get(k);
+    }
+
+    /**
+     * Returns median of three random values.
+     */
+    private static <T> T pivot(List<? extends T> values, Comparator<? super T> comparator) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final T a = values.get(random.nextInt(values.size()));
+        final T b = values.get(random.nextInt(values.size()));
+        final T c = values.get(random.nextInt(values.size()));
+        if (comparator.compare(a, b) > 0) {
+            return comparator.compare(b, c) >= 0 ? b : comparator.compare(a, c) <= 0 ? a : c;
+        }
+        return comparator.compare(a, c) >= 0 ? a : comparator.compare(b, c) <= 0 ? b : c;
+    }
+
+    /**
+     * Returns median of values. For an even number of values the lower median is returned.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to get median of.
+     * @param comparator value comparator.
+     * @param <T>        value type.
+     * @return median of values.
+     * @throws InterruptedException   if executing thread was interrupted.
+     * @throws NoSuchElementException if not values are given.
+     * @see #select(int, List, int, Comparator)
+     */
+    public <T> T median(int threads, List<? extends T> values, Comparator<? super T> comparator) throws InterruptedException {
+        return quantile(threads, values, 0.5, comparator);
+    }
+
+    /**
+     * Returns quantile of values by the nearest rank method:
+     * the value with index {@code ceil(q * n) - 1} in sorted order, or the least value for {@code q = 0}.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to get quantile of.
+     * @param q          quantile in range {@code [0, 1]}.
+     * @param comparator value comparator.
+     * @param <T>        value type.
+     * @return quantile of values.
+     * @throws InterruptedException     if executing thread was interrupted.
+     * @throws NoSuchElementException   if not values are given.
+     * @throws IllegalArgumentException if {@code q} is out of range {@code [0, 1]}.
+     * @see #select(int, List, int, Comparator)
+     */
+    public <T> T quantile(int threads, List<? extends T> values, double q, Comparator<? super T> comparator) throws InterruptedException {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Quantile is out of range: " + q);
+        }
+        if (values.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return select(threads, values, Math.max(0, (int) Math.ceil(q * values.size()) - 1), comparator);
+    }
+
     /**
      * Returns whether all values satisfies predicate.
+     * As soon as any chunk contains a counterexample, all other chunks stop scanning.
      *
      * @param threads   number or concurrent threads.
      * @param values    values to test.
@@ -169,13 +665,24 @@ public class IterativeParallelism implements ListIP {
      */
     @Override
     public <T> boolean all(int threads, List<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
-        Function<Stream<? extends T>, Boolean> function = s -> s.allMatch(predicate);
+        final AtomicBoolean failed = new AtomicBoolean();
+        Function<Segment<T>, Boolean> function = s -> s.stream().allMatch(value -> {
+            if (failed.get()) {
+                return false;
+            }
+            if (!predicate.test(value)) {
+                failed.set(true);
+                return false;
+            }
+            return true;
+        });
         Function<Stream<Boolean>, Boolean> merger = s -> s.allMatch(Boolean::booleanValue);
         return baseSupply(threads, values, function, merger);
     }
 
     /**
      * Returns whether any of values satisfies predicate.
+     * As soon as any chunk contains a matching value, all other chunks stop scanning.
      *
      * @param threads   number or concurrent threads.
      * @param values    values to test.
@@ -188,4 +695,1402 @@ public class IterativeParallelism implements ListIP {
     public <T> boolean any(int threads, List<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
         return !all(threads, values, predicate.negate());
     }
+
+    /**
+     * Returns the first value satisfying predicate.
+     * A chunk stops scanning as soon as a match is found in it or in any preceding chunk.
+     *
+     * @param threads   number or concurrent threads.
+     * @param values    values to search.
+     * @param predicate test predicate.
+     * @param <T>       value type.
+     * @return first value satisfying predicate or empty {@code Optional}, if there is no such value.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @throws NullPointerException if the value found is {@code null}.
+     */
+    public <T> Optional<T> findFirst(int threads, List<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
+        final AtomicInteger firstSegment = new AtomicInteger(Integer.MAX_VALUE);
+        Function<Segment<T>, List<T>> function = s -> {
+            for (final T value : s.values) {
+                if (firstSegment.get() < s.index) {
+                    break;
+                }
+                if (predicate.test(value)) {
+                    firstSegment.accumulateAndGet(s.index, Math::min);
+                    return Collections.singletonList(value);
+                }
+            }
+            return null;
+        };
+        Function<Stream<List<T>>, Optional<T>> merger = s -> s.filter(Objects::nonNull)
+                                                              .findFirst()
+                                                              .map(match -> Objects.requireNonNull(match.get(0)));
+        return baseSupply(threads, values, function, merger);
+    }
+
+    /**
+     * Returns any value satisfying predicate.
+     * All chunks stop scanning as soon as any of them finds a match.
+     *
+     * @param threads   number or concurrent threads.
+     * @param values    values to search.
+     * @param predicate test predicate.
+     * @param <T>       value type.
+     * @return some value satisfying predicate or empty {@code Optional}, if there is no such value.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @throws NullPointerException if the value found is {@code null}.
+     */
+    public <T> Optional<T> findAny(int threads, List<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
+        final AtomicBoolean found = new AtomicBoolean();
+        Function<Segment<T>, List<T>> function = s -> {
+            for (final T value : s.values) {
+                if (found.get()) {
+                    break;
+                }
+                if (predicate.test(value)) {
+                    found.set(true);
+                    return Collections.singletonList(value);
+                }
+            }
+            return null;
+        };
+        Function<Stream<List<T>>, Optional<T>> merger = s -> s.filter(Objects::nonNull)
+                                                              .findAny()
+                                                              .map(match -> Objects.requireNonNull(match.get(0)));
+        return baseSupply(threads, values, function, merger);
+    }
+
+    /**
+     * Reduces values using associative operation.
+     * Every chunk folds its values, then chunk results are folded in order.
+     *
+     * @param threads  number or concurrent threads.
+     * @param values   values to reduce.
+     * @param identity identity element of the operation.
+     * @param operator associative operation.
+     * @param <T>      value type.
+     * @return values reduced by the operation or {@code identity}, if no values are given.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T> T reduce(int threads, List<? extends T> values, T identity, BinaryOperator<T> operator) throws InterruptedException {
+        return mapReduce(threads, values, Function.identity(), new Monoid<>(identity, operator));
+    }
+
+    /**
+     * Maps values and reduces results using monoid.
+     * Mapped values are folded as they are produced, no intermediate list is built.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to reduce.
+     * @param lift    mapping function.
+     * @param monoid  monoid to use.
+     * @param <T>     value type.
+     * @param <R>     result type.
+     * @return values mapped and reduced by the monoid or identity, if no values are given.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T, R> R mapReduce(int threads, List<? extends T> values, Function<? super T, ? extends R> lift,
+                              Monoid<R> monoid) throws InterruptedException {
+        final BinaryOperator<R> operator = monoid.getOperator();
+        Function<Segment<T>, R> function = s -> {
+            R result = monoid.getIdentity();
+            for (final T value : s.values) {
+                result = operator.apply(result, lift.apply(value));
+            }
+            return result;
+        };
+        Function<Stream<R>, R> merger = s -> s.reduce(monoid.getIdentity(), operator);
+        return baseSupply(threads, values, function, merger);
+    }
+
+    /**
+     * Performs mutable reduction of values.
+     * Every chunk accumulates its values into its own container, containers are then combined in order.
+     *
+     * @param threads   number or concurrent threads.
+     * @param values    values to collect.
+     * @param collector collector describing the reduction.
+     * @param <T>       value type.
+     * @param <A>       intermediate accumulation type.
+     * @param <R>       result type.
+     * @return result of the reduction.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T, A, R> R collect(int threads, List<? extends T> values, Collector<? super T, A, R> collector) throws InterruptedException {
+        final BiConsumer<A, ? super T> accumulator = collector.accumulator();
+        Function<Segment<T>, A> function = s -> {
+            final A container = collector.supplier().get();
+            for (final T value : s.values) {
+                accumulator.accept(container, value);
+            }
+            return container;
+        };
+        Function<Stream<A>, A> merger = s -> s.reduce(collector.combiner()).orElseGet(collector.supplier());
+        return collector.finisher().apply(baseSupply(threads, values, function, merger));
+    }
+
+    /**
+     * Returns inclusive prefix sums of values: the {@code i}-th result is the fold of values from {@code 0} to {@code i}.
+     * Uses the two-pass blocked algorithm: segments fold their values, the folds are combined into
+     * a carry for every segment, then segments scan their values in parallel starting from the carry.
+     *
+     * @param threads  number or concurrent threads.
+     * @param values   values to scan.
+     * @param operator associative operation.
+     * @param <T>      value type.
+     * @return list of prefix sums.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T> List<T> scan(int threads, List<? extends T> values, BinaryOperator<T> operator) throws InterruptedException {
+        return scan(threads, values, true, null, operator);
+    }
+
+    /**
+     * Returns exclusive prefix sums of values: the {@code i}-th result is the fold of values
+     * from {@code 0} to {@code i - 1}, the first one is {@code identity}.
+     *
+     * @param threads  number or concurrent threads.
+     * @param values   values to scan.
+     * @param identity identity element of the operation.
+     * @param operator associative operation.
+     * @param <T>      value type.
+     * @return list of prefix sums.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @see #scan(int, List, BinaryOperator)
+     */
+    public <T> List<T> exclusiveScan(int threads, List<? extends T> values, T identity,
+                                     BinaryOperator<T> operator) throws InterruptedException {
+        return scan(threads, values, false, identity, operator);
+    }
+
+    private <T> List<T> scan(int threads, List<? extends T> values, boolean inclusive, T identity,
+                             BinaryOperator<T> operator) throws InterruptedException {
+        final List<Segment<T>> segments = split(threads, values);
+        final List<T> totals = execute(segments, s -> {
+            if (s.index == segments.size() - 1 || s.values.isEmpty()) {
+                return null;
+            }
+            T total = s.values.get(0);
+            for (int i = 1; i < s.values.size(); i++) {
+                total = operator.apply(total, s.values.get(i));
+            }
+            return total;
+        });
+
+        final List<T> carries = new ArrayList<>(segments.size());
+        carries.add(identity);
+        for (int i = 1; i < segments.size(); i++) {
+            carries.add(i == 1 ? totals.get(0) : operator.apply(carries.get(i - 1), totals.get(i - 1)));
+        }
+
+        final Object[] result = new Object[values.size()];
+        execute(segments, s -> {
+            T current = carries.get(s.index);
+            for (int i = 0; i < s.values.size(); i++) {
+                if (inclusive) {
+                    current = s.index == 0 && i == 0 ? s.values.get(0) : operator.apply(current, s.values.get(i));
+                    result[s.from + i] = current;
+                } else {
+                    result[s.from + i] = current;
+                    current = operator.apply(current, s.values.get(i));
+                }
+            }
+            return null;
+        });
+        return asList(result);
+    }
+
+    /**
+     * Returns inclusive prefix sums of {@code int} values.
+     *
+     * @param threads  number or concurrent threads.
+     * @param values   values to scan.
+     * @param operator associative operation.
+     * @return array of prefix sums.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @see #scan(int, List, BinaryOperator)
+     */
+    public int[] scan(int threads, int[] values, IntBinaryOperator operator) throws InterruptedException {
+        return scan(threads, values, true, 0, operator);
+    }
+
+    /**
+     * Returns exclusive prefix sums of {@code int} values.
+     *
+     * @param threads  number or concurrent threads.
+     * @param values   values to scan.
+     * @param identity identity element of the operation.
+     * @param operator associative operation.
+     * @return array of prefix sums.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @see #exclusiveScan(int, List, Object, BinaryOperator)
+     */
+    public int[] exclusiveScan(int threads, int[] values, int identity, IntBinaryOperator operator) throws InterruptedException {
+        return scan(threads, values, false, identity, operator);
+    }
+
+    private int[] scan(int threads, int[] values, boolean inclusive, int identity,
+                       IntBinaryOperator operator) throws InterruptedException {
+        final List<Range> ranges = ranges(threads, values.length);
+        final int[] totals = new int[ranges.size()];
+        execute(ranges.subList(0, ranges.size() - 1), r -> {
+            int total = values[r.from];
+            for (int i = r.from + 1; i < r.to; i++) {
+                total = operator.applyAsInt(total, values[i]);
+            }
+            totals[r.index] = total;
+            return null;
+        });
+
+        final int[] carries = new int[ranges.size()];
+        carries[0] = identity;
+        for (int i = 1; i < ranges.size(); i++) {
+            carries[i] = i == 1 ? totals[0] : operator.applyAsInt(carries[i - 1], totals[i - 1]);
+        }
+
+        final int[] result = new int[values.length];
+        execute(ranges, r -> {
+            int current = carries[r.index];
+            int i = r.from;
+            if (inclusive && r.index == 0 && i < r.to) {
+                current = values[i];
+                result[i++] = current;
+            }
+            for (; i < r.to; i++) {
+                if (inclusive) {
+                    current = operator.applyAsInt(current, values[i]);
+                    result[i] = current;
+                } else {
+                    result[i] = current;
+                    current = operator.applyAsInt(current, values[i]);
+                }
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Returns inclusive prefix sums of {@code long} values.
+     *
+     * @param threads  number or concurrent threads.
+     * @param values   values to scan.
+     * @param operator associative operation.
+     * @return array of prefix sums.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @see #scan(int, List, BinaryOperator)
+     */
+    public long[] scan(int threads, long[] values, LongBinaryOperator operator) throws InterruptedException {
+        return scan(threads, values, true, 0, operator);
+    }
+
+    /**
+     * Returns exclusive prefix sums of {@code long} values.
+     *
+     * @param threads  number or concurrent threads.
+     * @param values   values to scan.
+     * @param identity identity element of the operation.
+     * @param operator associative operation.
+     * @return array of prefix sums.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @see #exclusiveScan(int, List, Object, BinaryOperator)
+     */
+    public long[] exclusiveScan(int threads, long[] values, long identity, LongBinaryOperator operator) throws InterruptedException {
+        return scan(threads, values, false, identity, operator);
+    }
+
+    private long[] scan(int threads, long[] values, boolean inclusive, long identity,
+                        LongBinaryOperator operator) throws InterruptedException {
+        final List<Range> ranges = ranges(threads, values.length);
+        final long[] totals = new long[ranges.size()];
+        execute(ranges.subList(0, ranges.size() - 1), r -> {
+            long total = values[r.from];
+            for (int i = r.from + 1; i < r.to; i++) {
+                total = operator.applyAsLong(total, values[i]);
+            }
+            totals[r.index] = total;
+            return null;
+        });
+
+        final long[] carries = new long[ranges.size()];
+        carries[0] = identity;
+        for (int i = 1; i < ranges.size(); i++) {
+            carries[i] = i == 1 ? totals[0] : operator.applyAsLong(carries[i - 1], totals[i - 1]);
+        }
+
+        final long[] result = new long[values.length];
+        execute(ranges, r -> {
+            long current = carries[r.index];
+            int i = r.from;
+            if (inclusive && r.index == 0 && i < r.to) {
+                current = values[i];
+                result[i++] = current;
+            }
+            for (; i < r.to; i++) {
+                if (inclusive) {
+                    current = operator.applyAsLong(current, values[i]);
+                    result[i] = current;
+                } else {
+                    result[i] = current;
+                    current = operator.applyAsLong(current, values[i]);
+                }
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Returns inclusive prefix sums of {@code double} values.
+     * As floating point addition is not associative, sums may differ from the sequential ones in the last bits.
+     *
+     * @param threads  number or concurrent threads.
+     * @param values   values to scan.
+     * @param operator associative operation.
+     * @return array of prefix sums.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @see #scan(int, List, BinaryOperator)
+     */
+    public double[] scan(int threads, double[] values, DoubleBinaryOperator operator) throws InterruptedException {
+        return scan(threads, values, true, 0, operator);
+    }
+
+    /**
+     * Returns exclusive prefix sums of {@code double} values.
+     *
+     * @param threads  number or concurrent threads.
+     * @param values   values to scan.
+     * @param identity identity element of the operation.
+     * @param operator associative operation.
+     * @return array of prefix sums.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @see #exclusiveScan(int, List, Object, BinaryOperator)
+     */
+    public double[] exclusiveScan(int threads, double[] values, double identity,
+                                  DoubleBinaryOperator operator) throws InterruptedException {
+        return scan(threads, values, false, identity, operator);
+    }
+
+    private double[] scan(int threads, double[] values, boolean inclusive, double identity,
+                          DoubleBinaryOperator operator) throws InterruptedException {
+        final List<Range> ranges = ranges(threads, values.length);
+        final double[] totals = new double[ranges.size()];
+        execute(ranges.subList(0, ranges.size() - 1), r -> {
+            double total = values[r.from];
+            for (int i = r.from + 1; i < r.to; i++) {
+                total = operator.applyAsDouble(total, values[i]);
+            }
+            totals[r.index] = total;
+            return null;
+        });
+
+        final double[] carries = new double[ranges.size()];
+        carries[0] = identity;
+        for (int i = 1; i < ranges.size(); i++) {
+            carries[i] = i == 1 ? totals[0] : operator.applyAsDouble(carries[i - 1], totals[i - 1]);
+        }
+
+        final double[] result = new double[values.length];
+        execute(ranges, r -> {
+            double current = carries[r.index];
+            int i = r.from;
+            if (inclusive && r.index == 0 && i < r.to) {
+                current = values[i];
+                result[i++] = current;
+            }
+            for (; i < r.to; i++) {
+                if (inclusive) {
+                    current = operator.applyAsDouble(current, values[i]);
+                    result[i] = current;
+                } else {
+                    result[i] = current;
+                    current = operator.applyAsDouble(current, values[i]);
+                }
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Returns maximum of {@code int} values.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to get maximum of.
+     * @return maximum of given values.
+     * @throws InterruptedException   if executing thread was interrupted.
+     * @throws NoSuchElementException if not values are given.
+     */
+    public int maximum(int threads, int[] values) throws InterruptedException {
+        return fold(threads, values, Math::max);
+    }
+
+    /**
+     * Returns minimum of {@code int} values.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to get minimum of.
+     * @return minimum of given values.
+     * @throws InterruptedException   if executing thread was interrupted.
+     * @throws NoSuchElementException if not values are given.
+     */
+    public int minimum(int threads, int[] values) throws InterruptedException {
+        return fold(threads, values, Math::min);
+    }
+
+    private int fold(int threads, int[] values, IntBinaryOperator operator) throws InterruptedException {
+        if (values.length == 0) {
+            throw new NoSuchElementException();
+        }
+        final List<Integer> results = execute(ranges(threads, values.length), r -> {
+            int result = values[r.from];
+            for (int i = r.from + 1; i < r.to; i++) {
+                result = operator.applyAsInt(result, values[i]);
+            }
+            return result;
+        });
+        int result = results.get(0);
+        for (int i = 1; i < results.size(); i++) {
+            result = operator.applyAsInt(result, results.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns sum of {@code int} values. Values are summed as {@code long}, so the sum does not overflow.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to sum.
+     * @return sum of given values or {@code 0}, if no values are given.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public long sum(int threads, int[] values) throws InterruptedException {
+        final List<Long> sums = execute(ranges(threads, values.length), r -> {
+            long sum = 0;
+            for (int i = r.from; i < r.to; i++) {
+                sum += values[i];
+            }
+            return sum;
+        });
+        long sum = 0;
+        for (final long part : sums) {
+            sum += part;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns number of {@code int} values satisfying predicate.
+     *
+     * @param threads   number or concurrent threads.
+     * @param values    values to test.
+     * @param predicate test predicate.
+     * @return number of values satisfying predicate.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public int count(int threads, int[] values, IntPredicate predicate) throws InterruptedException {
+        final List<Integer> counts = execute(ranges(threads, values.length), r -> {
+            int count = 0;
+            for (int i = r.from; i < r.to; i++) {
+                if (predicate.test(values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        return counts.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Filters {@code int} values by predicate.
+     * Like {@link #filter(int, List, Predicate)}, ranges mark matching values first, then copy them into the result.
+     *
+     * @param threads   number of concurrent threads.
+     * @param values    values to filter.
+     * @param predicate filter predicate.
+     * @return array of values satisfying given predicated. Order of values is preserved.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public int[] filter(int threads, int[] values, IntPredicate predicate) throws InterruptedException {
+        final List<Range> ranges = ranges(threads, values.length);
+        final List<BitSet> masks = execute(ranges, r -> {
+            final BitSet mask = new BitSet(r.to - r.from);
+            for (int i = r.from; i < r.to; i++) {
+                if (predicate.test(values[i])) {
+                    mask.set(i - r.from);
+                }
+            }
+            return mask;
+        });
+        final int[] offsets = offsets(masks);
+
+        final int[] result = new int[offsets[ranges.size()]];
+        execute(ranges, r -> {
+            final BitSet mask = masks.get(r.index);
+            int position = offsets[r.index];
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                result[position++] = values[r.from + i];
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Maps {@code int} values.
+     *
+     * @param threads number of concurrent threads.
+     * @param values  values to map.
+     * @param f       mapper function.
+     * @return array of values mapped by given function.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public int[] map(int threads, int[] values, IntUnaryOperator f) throws InterruptedException {
+        final int[] result = new int[values.length];
+        execute(ranges(threads, values.length), r -> {
+            for (int i = r.from; i < r.to; i++) {
+                result[i] = f.applyAsInt(values[i]);
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Returns maximum of {@code long} values.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to get maximum of.
+     * @return maximum of given values.
+     * @throws InterruptedException   if executing thread was interrupted.
+     * @throws NoSuchElementException if not values are given.
+     */
+    public long maximum(int threads, long[] values) throws InterruptedException {
+        return fold(threads, values, Math::max);
+    }
+
+    /**
+     * Returns minimum of {@code long} values.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to get minimum of.
+     * @return minimum of given values.
+     * @throws InterruptedException   if executing thread was interrupted.
+     * @throws NoSuchElementException if not values are given.
+     */
+    public long minimum(int threads, long[] values) throws InterruptedException {
+        return fold(threads, values, Math::min);
+    }
+
+    private long fold(int threads, long[] values, LongBinaryOperator operator) throws InterruptedException {
+        if (values.length == 0) {
+            throw new NoSuchElementException();
+        }
+        final List<Long> results = execute(ranges(threads, values.length), r -> {
+            long result = values[r.from];
+            for (int i = r.from + 1; i < r.to; i++) {
+                result = operator.applyAsLong(result, values[i]);
+            }
+            return result;
+        });
+        long result = results.get(0);
+        for (int i = 1; i < results.size(); i++) {
+            result = operator.applyAsLong(result, results.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns sum of {@code long} values.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to sum.
+     * @return sum of given values or {@code 0}, if no values are given.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public long sum(int threads, long[] values) throws InterruptedException {
+        final List<Long> sums = execute(ranges(threads, values.length), r -> {
+            long sum = 0;
+            for (int i = r.from; i < r.to; i++) {
+                sum += values[i];
+            }
+            return sum;
+        });
+        long sum = 0;
+        for (final long part : sums) {
+            sum += part;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns number of {@code long} values satisfying predicate.
+     *
+     * @param threads   number or concurrent threads.
+     * @param values    values to test.
+     * @param predicate test predicate.
+     * @return number of values satisfying predicate.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public int count(int threads, long[] values, LongPredicate predicate) throws InterruptedException {
+        final List<Integer> counts = execute(ranges(threads, values.length), r -> {
+            int count = 0;
+            for (int i = r.from; i < r.to; i++) {
+                if (predicate.test(values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        return counts.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Filters {@code long} values by predicate.
+     * Like {@link #filter(int, List, Predicate)}, ranges mark matching values first, then copy them into the result.
+     *
+     * @param threads   number of concurrent threads.
+     * @param values    values to filter.
+     * @param predicate filter predicate.
+     * @return array of values satisfying given predicated. Order of values is preserved.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public long[] filter(int threads, long[] values, LongPredicate predicate) throws InterruptedException {
+        final List<Range> ranges = ranges(threads, values.length);
+        final List<BitSet> masks = execute(ranges, r -> {
+            final BitSet mask = new BitSet(r.to - r.from);
+            for (int i = r.from; i < r.to; i++) {
+                if (predicate.test(values[i])) {
+                    mask.set(i - r.from);
+                }
+            }
+            return mask;
+        });
+        final int[] offsets = offsets(masks);
+
+        final long[] result = new long[offsets[ranges.size()]];
+        execute(ranges, r -> {
+            final BitSet mask = masks.get(r.index);
+            int position = offsets[r.index];
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                result[position++] = values[r.from + i];
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Maps {@code long} values.
+     *
+     * @param threads number of concurrent threads.
+     * @param values  values to map.
+     * @param f       mapper function.
+     * @return array of values mapped by given function.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public long[] map(int threads, long[] values, LongUnaryOperator f) throws InterruptedException {
+        final long[] result = new long[values.length];
+        execute(ranges(threads, values.length), r -> {
+            for (int i = r.from; i < r.to; i++) {
+                result[i] = f.applyAsLong(values[i]);
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Returns maximum of {@code double} values.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to get maximum of.
+     * @return maximum of given values.
+     * @throws InterruptedException   if executing thread was interrupted.
+     * @throws NoSuchElementException if not values are given.
+     */
+    public double maximum(int threads, double[] values) throws InterruptedException {
+        return fold(threads, values, Math::max);
+    }
+
+    /**
+     * Returns minimum of {@code double} values.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to get minimum of.
+     * @return minimum of given values.
+     * @throws InterruptedException   if executing thread was interrupted.
+     * @throws NoSuchElementException if not values are given.
+     */
+    public double minimum(int threads, double[] values) throws InterruptedException {
+        return fold(threads, values, Math::min);
+    }
+
+    private double fold(int threads, double[] values, DoubleBinaryOperator operator) throws InterruptedException {
+        if (values.length == 0) {
+            throw new NoSuchElementException();
+        }
+        final List<Double> results = execute(ranges(threads, values.length), r -> {
+            double result = values[r.from];
+            for (int i = r.from + 1; i < r.to; i++) {
+                result = operator.applyAsDouble(result, values[i]);
+            }
+            return result;
+        });
+        double result = results.get(0);
+        for (int i = 1; i < results.size(); i++) {
+            result = operator.applyAsDouble(result, results.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns sum of {@code double} values. As floating point addition is not associative, the sum may differ from the sequential one in the last bits.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to sum.
+     * @return sum of given values or {@code 0}, if no values are given.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public double sum(int threads, double[] values) throws InterruptedException {
+        final List<Double> sums = execute(ranges(threads, values.length), r -> {
+            double sum = 0;
+            for (int i = r.from; i < r.to; i++) {
+                sum += values[i];
+            }
+            return sum;
+        });
+        double sum = 0;
+        for (final double part : sums) {
+            sum += part;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns number of {@code double} values satisfying predicate.
+     *
+     * @param threads   number or concurrent threads.
+     * @param values    values to test.
+     * @param predicate test predicate.
+     * @return number of values satisfying predicate.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public int count(int threads, double[] values, DoublePredicate predicate) throws InterruptedException {
+        final List<Integer> counts = execute(ranges(threads, values.length), r -> {
+            int count = 0;
+            for (int i = r.from; i < r.to; i++) {
+                if (predicate.test(values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        return counts.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Filters {@code double} values by predicate.
+     * Like {@link #filter(int, List, Predicate)}, ranges mark matching values first, then copy them into the result.
+     *
+     * @param threads   number of concurrent threads.
+     * @param values    values to filter.
+     * @param predicate filter predicate.
+     * @return array of values satisfying given predicated. Order of values is preserved.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public double[] filter(int threads, double[] values, DoublePredicate predicate) throws InterruptedException {
+        final List<Range> ranges = ranges(threads, values.length);
+        final List<BitSet> masks = execute(ranges, r -> {
+            final BitSet mask = new BitSet(r.to - r.from);
+            for (int i = r.from; i < r.to; i++) {
+                if (predicate.test(values[i])) {
+                    mask.set(i - r.from);
+                }
+            }
+            return mask;
+        });
+        final int[] offsets = offsets(masks);
+
+        final double[] result = new double[offsets[ranges.size()]];
+        execute(ranges, r -> {
+            final BitSet mask = masks.get(r.index);
+            int position = offsets[r.index];
+            for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1)) {
+                result[position++] = values[r.from + i];
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Maps {@code double} values.
+     *
+     * @param threads number of concurrent threads.
+     * @param values  values to map.
+     * @param f       mapper function.
+     * @return array of values mapped by given function.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public double[] map(int threads, double[] values, DoubleUnaryOperator f) throws InterruptedException {
+        final double[] result = new double[values.length];
+        execute(ranges(threads, values.length), r -> {
+            for (int i = r.from; i < r.to; i++) {
+                result[i] = f.applyAsDouble(values[i]);
+            }
+            return null;
+        });
+        return result;
+    }
+
+    private static int[] offsets(List<BitSet> masks) {
+        final int[] offsets = new int[masks.size() + 1];
+        for (int i = 0; i < masks.size(); i++) {
+            offsets[i + 1] = offsets[i] + masks.get(i).cardinality();
+        }
+        return offsets;
+    }
+
+    /**
+     * Folds a value into the container of its key, {@code container} is {@code null} for the first value of the key.
+     *
+     * @return new or updated container
+     */
+    private interface Accumulator<A, T> {
+        A accumulate(A container, T value, int index);
+    }
+
+    private static int partition(Object key, int partitions) {
+        final int hash = Objects.hashCode(key);
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+
+    /**
+     * Groups values by key. Every segment builds its own hash maps, one per key partition,
+     * then every partition is merged in parallel, segment by segment in list order.
+     *
+     * @return merged maps of all partitions, keys of different maps are distinct
+     */
+    private <T, K, A, R> List<Map<K, R>> groupPartitioned(int threads, List<? extends T> values,
+                                                        Function<? super T, ? extends K> classifier,
+                                                        Accumulator<A, ? super T> accumulator,
+                                                        BinaryOperator<A> combiner,
+                                                        Function<A, R> finisher) throws InterruptedException {
+        final List<Segment<T>> segments = split(threads, values);
+        final int partitions = segments.size();
+        final List<List<Map<K, A>>> local = execute(segments, s -> {
+            final List<Map<K, A>> maps = new ArrayList<>(partitions);
+            for (int i = 0; i < partitions; i++) {
+                maps.add(new HashMap<>());
+            }
+            for (int i = 0; i < s.values.size(); i++) {
+                final T value = s.values.get(i);
+                final K key = classifier.apply(value);
+                final Map<K, A> map = maps.get(partition(key, partitions));
+                final A container = map.get(key);
+                final A updated = accumulator.accumulate(container, value, s.from + i);
+                if (updated != container) {
+                    map.put(key, updated);
+                }
+            }
+            return maps;
+        });
+
+        return execute(IntStream.range(0, partitions).boxed().collect(Collectors.toList()), partition -> {
+            final Map<K, A> merged = new HashMap<>();
+            for (final List<Map<K, A>> maps : local) {
+                maps.get(partition).forEach((key, container) -> merged.merge(key, container, combiner));
+            }
+            final Map<K, R> result = new HashMap<>();
+            merged.forEach((key, container) -> result.put(key, finisher.apply(container)));
+            return result;
+        });
+    }
+
+    /**
+     * Unmodifiable union of maps produced by {@link #groupPartitioned}.
+     * A lookup goes straight to the map of the key partition, so the partitions are never rehashed into one map.
+     *
+     * @param <K> key type
+     * @param <V> value type
+     */
+    private static class PartitionedMap<K, V> extends AbstractMap<K, V> {
+        private final List<Map<K, V>> partitions;
+        private final int size;
+
+        PartitionedMap(List<Map<K, V>> partitions) {
+            this.partitions = partitions;
+            this.size = partitions.stream().mapToInt(Map::size).sum();
+        }
+
+        private Map<K, V> partitionOf(Object key) {
+            return partitions.get(partition(key, partitions.size()));
+        }
+
+        @Override
+        public V get(Object key) {
+            return partitionOf(key).get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return partitionOf(key).containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return partitions.stream()
+                            .flatMap(map -> map.entrySet().stream())
+                            .<Entry<K, V>>map(SimpleImmutableEntry::new)
+                            .iterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    /**
+     * Groups values by key.
+     * Every segment groups its values into its own hash maps, one per key partition,
+     * then partitions are merged in parallel.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to group.
+     * @param classifier key function.
+     * @param <T>        value type.
+     * @param <K>        key type.
+     * @return unmodifiable map from keys to lists of values with this key. Order of values in every list is preserved.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T, K> Map<K, List<T>> groupBy(int threads, List<? extends T> values,
+                                          Function<? super T, ? extends K> classifier) throws InterruptedException {
+        return new PartitionedMap<>(groupPartitioned(threads, values, classifier, (List<T> group, T value, int index) -> {
+            final List<T> result = group == null ? new ArrayList<>() : group;
+            result.add(value);
+            return result;
+        }, (first, second) -> {
+            first.addAll(second);
+            return first;
+        }, Function.identity()));
+    }
+
+    /**
+     * Counts values with every key.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to count.
+     * @param classifier key function.
+     * @param <T>        value type.
+     * @param <K>        key type.
+     * @return unmodifiable map from keys to numbers of values with this key.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @see #groupBy(int, List, Function)
+     */
+    public <T, K> Map<K, Long> countBy(int threads, List<? extends T> values,
+                                       Function<? super T, ? extends K> classifier) throws InterruptedException {
+        return new PartitionedMap<>(groupPartitioned(threads, values, classifier, (long[] count, T value, int index) -> {
+            final long[] result = count == null ? new long[1] : count;
+            result[0]++;
+            return result;
+        }, (first, second) -> {
+            first[0] += second[0];
+            return first;
+        }, count -> count[0]));
+    }
+
+    /**
+     * Returns distinct values in order of their first occurrence.
+     * Every key partition finds the first occurrence of its values in parallel,
+     * the occurrences are then collected in list order.
+     *
+     * @param threads number or concurrent threads.
+     * @param values  values to deduplicate.
+     * @param <T>     value type.
+     * @return list of distinct values.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T> List<T> distinct(int threads, List<? extends T> values) throws InterruptedException {
+        final List<Map<T, Integer>> first = groupPartitioned(threads, values, Function.<T>identity(),
+                (Integer index, T value, int current) -> index == null ? current : index,
+                (earlier, later) -> earlier, Function.identity());
+        final BitSet occurrences = new BitSet(values.size());
+        for (final Map<T, Integer> partition : first) {
+            partition.values().forEach(occurrences::set);
+        }
+
+        final List<? extends T> source = values instanceof RandomAccess ? values : new ArrayList<>(values);
+        final List<T> result = new ArrayList<>(occurrences.cardinality());
+        for (int i = occurrences.nextSetBit(0); i >= 0; i = occurrences.nextSetBit(i + 1)) {
+            result.add(source.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Groups values by key into a concurrent map.
+     * Chunks are grouped into local maps and merged into the shared map key by key,
+     * so a few heavy keys do not make a single partition a straggler.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to group.
+     * @param classifier key function, must not return {@code null}.
+     * @param <T>        value type.
+     * @param <K>        key type.
+     * @return map from keys to lists of values with this key. Order of values in lists is not specified.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T, K> ConcurrentMap<K, List<T>> groupByConcurrent(int threads, List<? extends T> values,
+                                                              Function<? super T, ? extends K> classifier) throws InterruptedException {
+        final ConcurrentMap<K, List<T>> result = new ConcurrentHashMap<>();
+        chunked(threads, values, s -> {
+            final Map<K, List<T>> local = new HashMap<>();
+            for (final T value : s.values) {
+                local.computeIfAbsent(classifier.apply(value), key -> new ArrayList<>()).add(value);
+            }
+            local.forEach((key, group) -> result.merge(key, group, (first, second) -> {
+                first.addAll(second);
+                return first;
+            }));
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Counts values with every key into a concurrent map.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to count.
+     * @param classifier key function, must not return {@code null}.
+     * @param <T>        value type.
+     * @param <K>        key type.
+     * @return map from keys to numbers of values with this key.
+     * @throws InterruptedException if executing thread was interrupted.
+     * @see #groupByConcurrent(int, List, Function)
+     */
+    public <T, K> ConcurrentMap<K, Long> countByConcurrent(int threads, List<? extends T> values,
+                                                           Function<? super T, ? extends K> classifier) throws InterruptedException {
+        final ConcurrentMap<K, Long> result = new ConcurrentHashMap<>();
+        chunked(threads, values, s -> {
+            final Map<K, Long> local = new HashMap<>();
+            for (final T value : s.values) {
+                local.merge(classifier.apply(value), 1L, Long::sum);
+            }
+            local.forEach((key, count) -> result.merge(key, count, Long::sum));
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Part of a merge of two adjacent sorted runs {@code [from, middle)} and {@code [middle, to)}:
+     * positions {@code [outFrom, outTo)} of the merged run, counted from {@code from}.
+     */
+    private static class MergeTask {
+        final int from;
+        final int middle;
+        final int to;
+        final int outFrom;
+        final int outTo;
+
+        MergeTask(int from, int middle, int to, int outFrom, int outTo) {
+            this.from = from;
+            this.middle = middle;
+            this.to = to;
+            this.outFrom = outFrom;
+            this.outTo = outTo;
+        }
+    }
+
+    /**
+     * Sorts values. The sort is stable.
+     * Segments are sorted in parallel, then sorted runs are merged pairwise in parallel rounds.
+     * When there are fewer pairs than threads, every merge is split into independent parts
+     * by binary search, so the last rounds are parallel too.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to sort.
+     * @param comparator value comparator.
+     * @param <T>        value type.
+     * @return sorted list of values.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> sort(int threads, List<? extends T> values, Comparator<? super T> comparator) throws InterruptedException {
+        T[] source = (T[]) values.toArray();
+        T[] target = (T[]) new Object[source.length];
+        final List<Range> ranges = ranges(threads, source.length);
+        final T[] initial = source;
+        execute(ranges, r -> {
+            Arrays.sort(initial, r.from, r.to, comparator);
+            return null;
+        });
+
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        for (final Range range : ranges) {
+            bounds.add(range.to);
+        }
+        while (bounds.size() > 2) {
+            final int runs = bounds.size() - 1;
+            final int parts = Math.max(1, threads / (runs / 2));
+            final List<MergeTask> tasks = new ArrayList<>();
+            final List<Integer> merged = new ArrayList<>();
+            merged.add(0);
+            for (int i = 0; i < runs; i += 2) {
+                final int from = bounds.get(i);
+                final int middle = bounds.get(i + 1);
+                final int to = i + 2 <= runs ? bounds.get(i + 2) : middle;
+                final int length = to - from;
+                for (int part = 0; part < parts; part++) {
+                    tasks.add(new MergeTask(from, middle, to,
+                                            (int) ((long) length * part / parts), (int) ((long) length * (part + 1) / parts)));
+                }
+                merged.add(to);
+            }
+
+            final T[] src = source;
+            final T[] dst = target;
+            execute(tasks, task -> {
+                merge(src, dst, task, comparator);
+                return null;
+            });
+            source = dst;
+            target = src;
+            bounds = merged;
+        }
+        return asList(source);
+    }
+
+    private static <T> void merge(T[] src, T[] dst, MergeTask task, Comparator<? super T> comparator) {
+        final int first = coRank(src, task, task.outFrom, comparator);
+        final int last = coRank(src, task, task.outTo, comparator);
+        int i = task.from + first;
+        int j = task.middle + task.outFrom - first;
+        final int iTo = task.from + last;
+        final int jTo = task.middle + task.outTo - last;
+        int k = task.from + task.outFrom;
+        while (i < iTo && j < jTo) {
+            dst[k++] = comparator.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+        }
+        while (i < iTo) {
+            dst[k++] = src[i++];
+        }
+        while (j < jTo) {
+            dst[k++] = src[j++];
+        }
+    }
+
+    /**
+     * Returns number of elements of the left run among the first {@code k} elements of the stable merge.
+     */
+    private static <T> int coRank(T[] src, MergeTask task, int k, Comparator<? super T> comparator) {
+        final int left = task.middle - task.from;
+        final int right = task.to - task.middle;
+        int low = Math.max(0, k - right);
+        int high = Math.min(k, left);
+        while (low < high) {
+            final int i = (low + high) >>> 1;
+            if (comparator.compare(src[task.from + i], src[task.middle + k - i - 1]) <= 0) {
+                low = i + 1;
+            } else {
+                high = i;
+            }
+        }
+        return low;
+    }
+
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * Source of batches for workers processing a stream of unknown length.
+     * Workers pull batches one by one, so at most one batch per worker is kept in memory.
+     *
+     * @param <T> element type
+     */
+    private static class Batches<T> {
+        private final Iterator<? extends T> iterator;
+        private int index;
+        private int from;
+
+        Batches(Iterator<? extends T> iterator) {
+            this.iterator = iterator;
+        }
+
+        synchronized Segment<T> next() {
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            final List<T> batch = new ArrayList<>(BATCH_SIZE);
+            while (batch.size() < BATCH_SIZE && iterator.hasNext()) {
+                batch.add(iterator.next());
+            }
+            final Segment<T> segment = new Segment<>(index++, from, batch);
+            from += batch.size();
+            return segment;
+        }
+    }
+
+    /**
+     * Runs {@code threads} workers over batches of {@code values}. Every worker folds results of its batches,
+     * worker results are then folded too, so the order of batches is not preserved.
+     * Workers stop pulling batches once {@code stop} is set.
+     *
+     * @return folded result or {@code null}, if there are no values
+     */
+    private <T, R> R reduceBatches(int threads, final Iterable<? extends T> values,
+                                   final Function<Segment<T>, R> function, final BinaryOperator<R> combiner,
+                                   final AtomicBoolean stop) throws InterruptedException {
+        final Batches<T> batches = new Batches<>(values.iterator());
+        final List<R> results = execute(Collections.nCopies(Math.max(1, threads), batches), source -> {
+            R result = null;
+            Segment<T> batch;
+            while (!stop.get() && (batch = source.next()) != null) {
+                final R current = function.apply(batch);
+                result = result == null ? current : combiner.apply(result, current);
+            }
+            return result;
+        });
+        return results.stream().filter(Objects::nonNull).reduce(combiner).orElse(null);
+    }
+
+    /**
+     * Runs {@code threads} workers over batches of {@code values} and concatenates batch results in source order.
+     */
+    private <T, R> List<R> mapBatches(int threads, final Iterable<? extends T> values,
+                                      final Function<Segment<T>, List<R>> function) throws InterruptedException {
+        final Batches<T> batches = new Batches<>(values.iterator());
+        final Map<Integer, List<R>> results = new ConcurrentHashMap<>();
+        execute(Collections.nCopies(Math.max(1, threads), batches), source -> {
+            Segment<T> batch;
+            while ((batch = source.next()) != null) {
+                results.put(batch.index, function.apply(batch));
+            }
+            return null;
+        });
+
+        final List<R> result = new ArrayList<>(results.values().stream().mapToInt(List::size).sum());
+        for (int i = 0; i < results.size(); i++) {
+            result.addAll(results.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns maximum value of a source of unknown length.
+     * Values are pulled in batches, so memory usage does not depend on the number of values.
+     * If there are several maximal values, any of them may be returned.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to get maximum of.
+     * @param comparator value comparator.
+     * @param <T>        value type.
+     * @return maximum of given values
+     * @throws InterruptedException   if executing thread was interrupted.
+     * @throws NoSuchElementException if not values are given.
+     */
+    public <T> T maximum(int threads, Iterable<? extends T> values, Comparator<? super T> comparator) throws InterruptedException {
+        final BinaryOperator<T> max = BinaryOperator.maxBy(comparator);
+        final T result = reduceBatches(threads, values, s -> s.stream().max(comparator).orElseThrow(),
+                                       max, new AtomicBoolean());
+        if (result == null) {
+            throw new NoSuchElementException();
+        }
+        return result;
+    }
+
+    /**
+     * Returns minimum value of a source of unknown length.
+     * Values are pulled in batches, so memory usage does not depend on the number of values.
+     * If there are several minimal values, any of them may be returned.
+     *
+     * @param threads    number or concurrent threads.
+     * @param values     values to get minimum of.
+     * @param comparator value comparator.
+     * @param <T>        value type.
+     * @return minimum of given values
+     * @throws InterruptedException   if executing thread was interrupted.
+     * @throws NoSuchElementException if not values are given.
+     */
+    public <T> T minimum(int threads, Iterable<? extends T> values, Comparator<? super T> comparator) throws InterruptedException {
+        return maximum(threads, values, comparator.reversed());
+    }
+
+    /**
+     * Returns whether all values of a source of unknown length satisfy predicate.
+     * Values are pulled in batches; no more batches are pulled once a counterexample is found.
+     *
+     * @param threads   number or concurrent threads.
+     * @param values    values to test.
+     * @param predicate test predicate.
+     * @param <T>       value type.
+     * @return whether all values satisfies predicate or {@code true}, if no values are given.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T> boolean all(int threads, Iterable<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
+        final AtomicBoolean failed = new AtomicBoolean();
+        reduceBatches(threads, values, s -> {
+            if (!s.stream().allMatch(value -> !failed.get() && predicate.test(value))) {
+                failed.set(true);
+            }
+            return null;
+        }, (a, b) -> null, failed);
+        return !failed.get();
+    }
+
+    /**
+     * Returns whether any of values of a source of unknown length satisfies predicate.
+     * Values are pulled in batches; no more batches are pulled once a matching value is found.
+     *
+     * @param threads   number or concurrent threads.
+     * @param values    values to test.
+     * @param predicate test predicate.
+     * @param <T>       value type.
+     * @return whether any value satisfies predicate or {@code false}, if no values are given.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T> boolean any(int threads, Iterable<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
+        return !all(threads, values, predicate.negate());
+    }
+
+    /**
+     * Filters values of a source of unknown length by predicate.
+     * Values are pulled in batches, so only the result is kept in memory.
+     *
+     * @param threads   number of concurrent threads.
+     * @param values    values to filter.
+     * @param predicate filter predicate.
+     * @return list of values satisfying given predicated. Order of values is preserved.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T> List<T> filter(int threads, Iterable<? extends T> values, Predicate<? super T> predicate) throws InterruptedException {
+        return mapBatches(threads, values, s -> s.stream().filter(predicate).collect(Collectors.toList()));
+    }
+
+    /**
+     * Maps values of a source of unknown length.
+     * Values are pulled in batches, so only the result is kept in memory.
+     *
+     * @param threads number of concurrent threads.
+     * @param values  values to map.
+     * @param f       mapper function.
+     * @return list of values mapped by given function.
+     * @throws InterruptedException if executing thread was interrupted.
+     */
+    public <T, U> List<U> map(int threads, Iterable<? extends T> values, Function<? super T, ? extends U> f) throws InterruptedException {
+        return mapBatches(threads, values, s -> s.stream().<U>map(f).collect(Collectors.toList()));
+    }
 }
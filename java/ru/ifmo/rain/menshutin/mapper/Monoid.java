@@ -0,0 +1,26 @@
+package ru.ifmo.rain.menshutin.mapper;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Associative operation with an identity element.
+ *
+ * @param <T> element type
+ */
+public class Monoid<T> {
+    private final T identity;
+    private final BinaryOperator<T> operator;
+
+    public Monoid(T identity, BinaryOperator<T> operator) {
+        this.identity = identity;
+        this.operator = operator;
+    }
+
+    public T getIdentity() {
+        return identity;
+    }
+
+    public BinaryOperator<T> getOperator() {
+        return operator;
+    }
+}
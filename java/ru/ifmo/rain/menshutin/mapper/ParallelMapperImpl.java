@@ -2,88 +2,485 @@ package ru.ifmo.rain.menshutin.mapper;
 
 import info.kgeorgiy.java.advanced.mapper.ParallelMapper;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 
+/**
+ * {@link ParallelMapper} on a pool of worker threads.
+ * <p>
+ * Every worker owns a deque of jobs per {@link Priority}. Submitted jobs are spread over the deques
+ * round-robin, a worker takes jobs from the head of its own deque and, when it is empty, steals from
+ * the tails of the others, serving higher priorities first. The number of queued jobs is tracked
+ * by a semaphore, so idle workers sleep without holding any lock and submission does not contend
+ * on a single monitor.
+ * <p>
+ * A {@code map} call does not enqueue all of its chunks at once. It enqueues at most one job per worker,
+ * every job processes a single chunk and then goes to the tail of the queue again. So concurrent calls
+ * of the same priority interleave chunk by chunk, and a small call never waits behind a whole bulk one.
+ * <p>
+ * The pool is either fixed or elastic. An elastic pool keeps at least {@code minThreads} workers,
+ * starts another one, up to {@code maxThreads}, whenever a job waited in the queue longer than
+ * the target delay, and retires workers that found no job during the keep-alive time.
+ * Every worker owns a slot with its deques; deques of a retired worker are drained by stealing.
+ * <p>
+ * Queue length, worker busy time, chunk runtimes, queueing delays and call latencies
+ * are collected in {@link ParallelMapperMetrics}, which may be exported via JMX.
+ */
 public class ParallelMapperImpl implements ParallelMapper {
-    private final List<Thread> threads;
-    private final Queue<Runnable> jobs;
+    private final Thread[] workers;
+    private final int minThreads;
+    private final int maxThreads;
+    private final long keepAliveNanos;
+    private final long targetDelayNanos;
+    private final List<List<Deque<Job>>> jobs;
+    private final Semaphore queued;
+    private final AtomicInteger nextDeque;
+    private final ParallelMapperMetrics metrics;
+    private volatile int alive;
+    private boolean closed;
+    private ObjectName registeredName;
 
+    private static final long CHUNK_NANOS = 50_000;
+
+    /**
+     * Creates mapper with a fixed pool of the given number of threads.
+     */
     public ParallelMapperImpl(int threads) {
-        this.threads = new ArrayList<>(threads);
-        jobs = new ArrayDeque<>();
+        this(threads, threads, 0, 0, TimeUnit.NANOSECONDS);
+    }
 
-        Runnable runnable = () -> {
-            try {
-                while (!Thread.currentThread().isInterrupted()) {
-                    Runnable head;
-                    synchronized (jobs) {
-                        while (jobs.isEmpty()) {
-                            jobs.wait();
-                        }
-                        head = jobs.poll();
+    /**
+     * Creates mapper with an elastic pool.
+     *
+     * @param minThreads  number of workers that are never retired
+     * @param maxThreads  maximal number of workers
+     * @param keepAlive   time an idle worker waits for a job before it is retired
+     * @param targetDelay queueing delay of a job above which another worker is started
+     * @param unit        time unit of {@code keepAlive} and {@code targetDelay}
+     * @throws IllegalArgumentException if {@code minThreads < 0}, {@code maxThreads < 1}
+     *                                  or {@code minThreads > maxThreads}
+     */
+    public ParallelMapperImpl(int minThreads, int maxThreads, long keepAlive, long targetDelay, TimeUnit unit) {
+        if (minThreads < 0 || maxThreads < 1 || minThreads > maxThreads) {
+            throw new IllegalArgumentException("Invalid pool size: " + minThreads + ".." + maxThreads);
+        }
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.keepAliveNanos = unit.toNanos(keepAlive);
+        this.targetDelayNanos = unit.toNanos(targetDelay);
+        workers = new Thread[maxThreads];
+        jobs = new ArrayList<>();
+        queued = new Semaphore(0);
+        nextDeque = new AtomicInteger();
+        metrics = new ParallelMapperMetrics(maxThreads, () -> alive, queued::availablePermits);
+
+        for (int level = 0; level < Priority.values().length; level++) {
+            final List<Deque<Job>> deques = new ArrayList<>(maxThreads);
+            for (int i = 0; i < maxThreads; i++) {
+                deques.add(new ConcurrentLinkedDeque<>());
+            }
+            jobs.add(deques);
+        }
+
+        for (int i = 0; i < minThreads; i++) {
+            grow();
+        }
+    }
+
+    private void work(int own) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!acquire()) {
+                    if (retire(own)) {
+                        return;
                     }
-                    head.run();
+                    continue;
+                }
+                final Job job = take(own);
+                final long start = System.nanoTime();
+                if (start - job.enqueued > targetDelayNanos && alive < maxThreads && queued.availablePermits() > 0) {
+                    grow();
+                }
+                if (job.call.run()) {
+                    final long end = System.nanoTime();
+                    metrics.recordTask(own, start - job.enqueued, end - start);
                 }
-            } catch (InterruptedException ignored) {
-            } finally {
-                Thread.currentThread().interrupt();
             }
-        };
-
-        for (int i = 0; i < threads; i++) {
-            this.threads.add(new Thread(runnable));
-            this.threads.get(i).start();
+        } catch (InterruptedException ignored) {
+        } finally {
+            Thread.currentThread().interrupt();
         }
     }
 
-    private class MutableInteger {
-        private int value = 0;
+    /**
+     * Waits for a job, workers above {@link #minThreads} wait no longer than the keep-alive time.
+     *
+     * @return {@code false} if no job was queued during the keep-alive time
+     */
+    private boolean acquire() throws InterruptedException {
+        if (minThreads == maxThreads) {
+            queued.acquire();
+            return true;
+        }
+        return queued.tryAcquire(keepAliveNanos, TimeUnit.NANOSECONDS);
+    }
 
-        int getValue() {
-            return value;
+    /**
+     * Starts a worker in a free slot, if there is one.
+     */
+    private void grow() {
+        synchronized (workers) {
+            if (closed || alive == maxThreads) {
+                return;
+            }
+            int slot = 0;
+            while (workers[slot] != null) {
+                slot++;
+            }
+            final int own = slot;
+            workers[own] = new Thread(() -> work(own));
+            alive++;
+            metrics.recordStarted();
+            workers[own].start();
         }
+    }
 
-        void increment() {
-            value++;
+    /**
+     * Frees the slot of an idle worker unless the pool is at its minimal size.
+     *
+     * @return {@code true} if the worker should exit
+     */
+    private boolean retire(int own) {
+        synchronized (workers) {
+            if (alive <= minThreads) {
+                return false;
+            }
+            workers[own] = null;
+            alive--;
+            metrics.recordRetired();
+        }
+        if (alive == 0 && queued.availablePermits() > 0) {
+            grow();
         }
+        return true;
     }
 
-    @Override
-    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
-        final List<R> result = new ArrayList<>(Collections.nCopies(args.size(), null));
+    /**
+     * Priority of a {@code map} call. Jobs of higher priority calls are always taken first.
+     */
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
 
-        final MutableInteger counter = new MutableInteger();
+    /**
+     * Returns metrics of this mapper.
+     */
+    public ParallelMapperMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Registers metrics of this mapper in the platform MBean server.
+     * They are unregistered on {@link #close()}.
+     *
+     * @param name value of the {@code name} key of the object name
+     * @throws JMException if registration failed
+     */
+    public synchronized void registerMBean(String name) throws JMException {
+        final ObjectName objectName = new ObjectName(getClass().getPackageName(), "name", ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+        registeredName = objectName;
+    }
 
-        for (int i = 0; i < args.size(); i++) {
-            final int index = i;
-            Runnable runnable = () -> {
-                synchronized (result) {
-                    result.set(index, f.apply(args.get(index)));
+    /**
+     * Queued run of a {@link Call} stamped with the time it was queued.
+     */
+    private static class Job {
+        private final Call call;
+        private final long enqueued = System.nanoTime();
+
+        Job(Call call) {
+            this.call = call;
+        }
+    }
+
+    /**
+     * Takes a job after a permit of {@link #queued} was acquired,
+     * so at least one job not claimed by other workers is present in the deques.
+     */
+    private Job take(int own) {
+        while (true) {
+            for (final List<Deque<Job>> deques : jobs) {
+                Job job = deques.get(own).pollFirst();
+                if (job != null) {
+                    return job;
                 }
-                synchronized (counter) {
-                    counter.increment();
-                    if (counter.getValue() == args.size()) {
-                        counter.notify();
+                for (int i = 1; i < deques.size(); i++) {
+                    job = deques.get((own + i) % deques.size()).pollLast();
+                    if (job != null) {
+                        return job;
                     }
                 }
+            }
+        }
+    }
+
+    private void submit(Call call, Priority priority) {
+        final List<Deque<Job>> deques = jobs.get(priority.ordinal());
+        deques.get(Math.floorMod(nextDeque.getAndIncrement(), deques.size())).addLast(new Job(call));
+        queued.release();
+        if (alive == 0) {
+            grow();
+        }
+    }
+
+    /**
+     * Processing of a range of elements.
+     */
+    private interface RangeTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * Job of a single {@code map} call. Every run claims and processes the next chunk of elements
+     * and resubmits the job while unclaimed elements remain. The chunk size is adjusted
+     * after every chunk, so that a chunk takes about {@link #CHUNK_NANOS}.
+     * <p>
+     * A cancelled call marks all elements as claimed, so its queued jobs are dropped
+     * by workers without doing any work. A chunk that throws cancels the call and reports
+     * the exception; the worker itself goes on with other jobs.
+     * <p>
+     * Latency of the call is recorded once, when it completes, fails or is cancelled.
+     */
+    private class Call {
+        private final RangeTask task;
+        private final int size;
+        private final int maxChunk;
+        private final Priority priority;
+        private final Runnable done;
+        private final Consumer<Throwable> failed;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final long created = System.nanoTime();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile int chunk = 1;
+
+        Call(RangeTask task, int size, Priority priority, Runnable done, Consumer<Throwable> failed) {
+            this.task = task;
+            this.size = size;
+            this.maxChunk = Math.max(1, (size + maxThreads - 1) / maxThreads);
+            this.priority = priority;
+            this.done = () -> {
+                finish();
+                done.run();
             };
-            synchronized (jobs) {
-                jobs.add(runnable);
-                jobs.notify();
+            this.failed = failed;
+            this.remaining = new AtomicInteger(size);
+        }
+
+        void cancel() {
+            next.set(size);
+            finish();
+        }
+
+        private void finish() {
+            if (finished.compareAndSet(false, true)) {
+                metrics.recordCall(System.nanoTime() - created);
             }
         }
 
-        synchronized (counter) {
-            while (counter.getValue() < args.size()) {
-                counter.wait();
+        void start() {
+            if (size == 0) {
+                done.run();
+            }
+            for (int i = 0; i < Math.min(size, maxThreads); i++) {
+                submit(this, priority);
+            }
+        }
+
+        /**
+         * Processes the next chunk, if any.
+         *
+         * @return {@code false} if there was no chunk to process
+         */
+        boolean run() {
+            if (next.get() >= size) {
+                return false;
+            }
+            final int claimed = chunk;
+            final int from = next.getAndAdd(claimed);
+            if (from >= size) {
+                return false;
+            }
+            final int to = (int) Math.min(size, (long) from + claimed);
+
+            final long time = System.nanoTime();
+            try {
+                task.run(from, to);
+            } catch (Throwable e) {
+                cancel();
+                failed.accept(e);
+                return true;
             }
+            final long cost = Math.max(1, (System.nanoTime() - time) / (to - from));
+            chunk = (int) Math.max(1, Math.min(maxChunk, CHUNK_NANOS / cost));
+
+            if (next.get() < size) {
+                submit(this, priority);
+            }
+            if (remaining.addAndGet(from - to) == 0) {
+                done.run();
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
+        return map(f, args, Priority.NORMAL);
+    }
+
+    /**
+     * Maps function {@code f} over specified {@code args} with the given priority.
+     * The calling thread waits for {@link #mapAsync(Function, List, Priority, ObjIntConsumer)};
+     * if it is interrupted, the remaining elements are not processed.
+     *
+     * @param priority priority of the call
+     * @throws InterruptedException if calling thread was interrupted
+     * @throws RuntimeException     thrown by {@code f} for some element
+     */
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args,
+                              Priority priority) throws InterruptedException {
+        final CompletableFuture<List<R>> future = mapAsync(f, args, priority, null);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw rethrow(e);
         }
-        return result;
+    }
+
+    /**
+     * Maps function {@code f} over specified {@code args} with the given priority and deadline.
+     * When the deadline passes, the call is cancelled: chunks that are not started yet are dropped.
+     *
+     * @param priority priority of the call
+     * @param timeout  maximal time to wait for the results
+     * @param unit     time unit of {@code timeout}
+     * @throws InterruptedException if calling thread was interrupted
+     * @throws TimeoutException     if results were not ready in time
+     * @throws RuntimeException     thrown by {@code f} for some element
+     */
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args,
+                              Priority priority, long timeout, TimeUnit unit)
+            throws InterruptedException, TimeoutException {
+        final CompletableFuture<List<R>> future = mapAsync(f, args, priority, null);
+        try {
+            return future.get(timeout, unit);
+        } catch (InterruptedException | TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static RuntimeException rethrow(ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * Asynchronously maps function {@code f} over specified {@code args}.
+     *
+     * @return future completed with list of results
+     */
+    public <T, R> CompletableFuture<List<R>> mapAsync(Function<? super T, ? extends R> f, List<? extends T> args) {
+        return mapAsync(f, args, Priority.NORMAL, null);
+    }
+
+    /**
+     * Asynchronously maps function {@code f} over specified {@code args} with the given priority.
+     * Arguments are processed in chunks sized by the list length and the measured cost of already
+     * processed elements, so cheap functions over long lists are not dominated by the per-job overhead.
+     * Results are written directly into a preallocated array.
+     * <p>
+     * Cancelling or otherwise completing the returned future, e.g. by
+     * {@link CompletableFuture#orTimeout(long, TimeUnit)}, stops processing: chunks that are not started
+     * yet are dropped. If {@code f} or {@code onElement} throws, the future is completed
+     * with that exception and the call is stopped the same way.
+     *
+     * @param priority  priority of the call
+     * @param onElement callback invoked by a worker with every result and its index
+     *                  as soon as the result is ready, or {@code null}
+     * @return future completed with list of results
+     */
+    public <T, R> CompletableFuture<List<R>> mapAsync(Function<? super T, ? extends R> f, List<? extends T> args,
+                                                      Priority priority, ObjIntConsumer<? super R> onElement) {
+        final int size = args.size();
+        final Object[] result = new Object[size];
+        @SuppressWarnings("unchecked") final List<R> list = (List<R>) Arrays.asList(result);
+        final CompletableFuture<List<R>> future = new CompletableFuture<>();
+
+        final Call call = new Call((from, to) -> {
+            for (int i = from; i < to; i++) {
+                final R value = f.apply(args.get(i));
+                result[i] = value;
+                if (onElement != null) {
+                    onElement.accept(value, i);
+                }
+            }
+        }, size, priority, () -> future.complete(list), future::completeExceptionally);
+        future.whenComplete((value, exception) -> {
+            if (exception != null) {
+                call.cancel();
+            }
+        });
+        call.start();
+        return future;
     }
 
     @Override
     public void close() {
+        synchronized (this) {
+            if (registeredName != null) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+                } catch (JMException ignored) {
+                }
+                registeredName = null;
+            }
+        }
+        final List<Thread> threads = new ArrayList<>();
+        synchronized (workers) {
+            closed = true;
+            for (final Thread worker : workers) {
+                if (worker != null) {
+                    threads.add(worker);
+                }
+            }
+        }
         threads.forEach(Thread::interrupt);
         for (Thread thread : threads) {
             try {
@@ -92,4 +489,4 @@ public class ParallelMapperImpl implements ParallelMapper {
             }
         }
     }
-}
\ No newline at end of file
+}
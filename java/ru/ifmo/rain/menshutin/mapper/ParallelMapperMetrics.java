@@ -0,0 +1,199 @@
+package ru.ifmo.rain.menshutin.mapper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters and histograms of a {@link ParallelMapperImpl} worker pool.
+ * Recording costs a few uncontended additions per job and per call, so metrics are always on.
+ */
+public class ParallelMapperMetrics implements ParallelMapperMetricsMXBean {
+    private final IntSupplier workers;
+    private final IntSupplier queueLength;
+    private final AtomicLongArray busy;
+    private final LongAdder started = new LongAdder();
+    private final LongAdder retired = new LongAdder();
+    private final long created = System.nanoTime();
+
+    final Histogram taskRuntime = new Histogram();
+    final Histogram queueDelay = new Histogram();
+    final Histogram callLatency = new Histogram();
+
+    ParallelMapperMetrics(int maxWorkers, IntSupplier workers, IntSupplier queueLength) {
+        this.busy = new AtomicLongArray(maxWorkers);
+        this.workers = workers;
+        this.queueLength = queueLength;
+    }
+
+    void recordTask(int worker, long delay, long runtime) {
+        busy.addAndGet(worker, runtime);
+        queueDelay.record(delay);
+        taskRuntime.record(runtime);
+    }
+
+    void recordCall(long latency) {
+        callLatency.record(latency);
+    }
+
+    void recordStarted() {
+        started.increment();
+    }
+
+    void recordRetired() {
+        retired.increment();
+    }
+
+    @Override
+    public int getWorkers() {
+        return workers.getAsInt();
+    }
+
+    @Override
+    public long getWorkersStarted() {
+        return started.sum();
+    }
+
+    @Override
+    public long getWorkersRetired() {
+        return retired.sum();
+    }
+
+    @Override
+    public int getQueueLength() {
+        return queueLength.getAsInt();
+    }
+
+    @Override
+    public long getTasksCompleted() {
+        return taskRuntime.count();
+    }
+
+    @Override
+    public long[] getWorkerBusyNanos() {
+        final long[] result = new long[busy.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = busy.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Busy time is related to the current number of workers, so it is approximate for elastic pools.
+     */
+    @Override
+    public double getUtilization() {
+        final long elapsed = (System.nanoTime() - created) * Math.max(1, getWorkers());
+        return elapsed == 0 ? 0 : (double) taskRuntime.total() / elapsed;
+    }
+
+    @Override
+    public long getTaskRuntimeMeanNanos() {
+        return taskRuntime.mean();
+    }
+
+    @Override
+    public long getTaskRuntimeP99Nanos() {
+        return taskRuntime.percentile(0.99);
+    }
+
+    @Override
+    public long[] getTaskRuntimeHistogram() {
+        return taskRuntime.buckets();
+    }
+
+    @Override
+    public long getQueueDelayMeanNanos() {
+        return queueDelay.mean();
+    }
+
+    @Override
+    public long getQueueDelayP99Nanos() {
+        return queueDelay.percentile(0.99);
+    }
+
+    @Override
+    public long[] getQueueDelayHistogram() {
+        return queueDelay.buckets();
+    }
+
+    @Override
+    public long getCallLatencyMeanNanos() {
+        return callLatency.mean();
+    }
+
+    @Override
+    public long getCallLatencyP99Nanos() {
+        return callLatency.percentile(0.99);
+    }
+
+    @Override
+    public long[] getCallLatencyHistogram() {
+        return callLatency.buckets();
+    }
+
+    /**
+     * Histogram of durations with power of two buckets.
+     */
+    static class Histogram {
+        private final LongAdder[] buckets = new LongAdder[Long.SIZE];
+        private final LongAdder total = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            final long value = Math.max(1, nanos);
+            buckets[Long.SIZE - 1 - Long.numberOfLeadingZeros(value)].increment();
+            total.add(value);
+        }
+
+        long count() {
+            long count = 0;
+            for (final LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        long total() {
+            return total.sum();
+        }
+
+        long mean() {
+            final long count = count();
+            return count == 0 ? 0 : total() / count;
+        }
+
+        /**
+         * Returns upper bound of the bucket containing the given quantile.
+         */
+        long percentile(double quantile) {
+            final long[] counts = buckets();
+            long count = 0;
+            for (final long bucket : counts) {
+                count += bucket;
+            }
+            final long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return i == Long.SIZE - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                }
+            }
+            return 0;
+        }
+
+        long[] buckets() {
+            final long[] result = new long[buckets.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = buckets[i].sum();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.ifmo.rain.menshutin.mapper;
+
+/**
+ * Management interface of {@link ParallelMapperMetrics}.
+ * Histograms are arrays of counters, where element {@code i} counts durations
+ * in range [2<sup>i</sup>, 2<sup>i + 1</sup>) nanoseconds.
+ */
+public interface ParallelMapperMetricsMXBean {
+    /** Number of worker threads. */
+    int getWorkers();
+
+    /** Number of workers started since the mapper was created, including the initial ones. */
+    long getWorkersStarted();
+
+    /** Number of idle workers retired by an elastic pool. */
+    long getWorkersRetired();
+
+    /** Number of jobs waiting in the queues. */
+    int getQueueLength();
+
+    /** Number of processed chunks. Jobs dropped because their call had no chunks left are not counted. */
+    long getTasksCompleted();
+
+    /** Time spent running jobs by every worker slot. */
+    long[] getWorkerBusyNanos();
+
+    /** Fraction of worker time spent running jobs since the mapper was created. */
+    double getUtilization();
+
+    long getTaskRuntimeMeanNanos();
+
+    long getTaskRuntimeP99Nanos();
+
+    long[] getTaskRuntimeHistogram();
+
+    long getQueueDelayMeanNanos();
+
+    long getQueueDelayP99Nanos();
+
+    long[] getQueueDelayHistogram();
+
+    /** Latencies of calls include failed, cancelled and timed out calls, up to the moment they were stopped. */
+    long getCallLatencyMeanNanos();
+
+    long getCallLatencyP99Nanos();
+
+    long[] getCallLatencyHistogram();
+}
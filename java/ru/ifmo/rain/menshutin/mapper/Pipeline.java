@@ -0,0 +1,102 @@
+package ru.ifmo.rain.menshutin.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fluent chain of {@code map} and {@code filter} stages executed on {@link ParallelMapperImpl}.
+ * <p>
+ * Stages are fused: every element passes through all of them on the same worker within a single
+ * {@code map} call, so there are no intermediate lists and no barriers between stages.
+ * The order of source elements is preserved in the result.
+ *
+ * @param <S> source element type
+ * @param <T> element type after all stages
+ */
+public class Pipeline<S, T> {
+    private static final Object FILTERED = new Object();
+
+    private final ParallelMapperImpl mapper;
+    private final List<? extends S> source;
+    private final Function<? super S, Object> stages;
+
+    private Pipeline(ParallelMapperImpl mapper, List<? extends S> source, Function<? super S, Object> stages) {
+        this.mapper = mapper;
+        this.source = source;
+        this.stages = stages;
+    }
+
+    /**
+     * Creates pipeline without stages over the given source.
+     *
+     * @param mapper mapper to execute pipeline on
+     * @param source source elements
+     * @param <T>    element type
+     * @return new pipeline
+     */
+    public static <T> Pipeline<T, T> of(ParallelMapperImpl mapper, List<? extends T> source) {
+        return new Pipeline<>(mapper, source, Function.identity());
+    }
+
+    /**
+     * Appends mapping stage.
+     *
+     * @param f   mapping function
+     * @param <R> result element type
+     * @return new pipeline with the stage appended
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Pipeline<S, R> map(Function<? super T, ? extends R> f) {
+        return new Pipeline<>(mapper, source, value -> {
+            final Object current = stages.apply(value);
+            return current == FILTERED ? FILTERED : f.apply((T) current);
+        });
+    }
+
+    /**
+     * Appends filtering stage.
+     *
+     * @param predicate predicate for elements to keep
+     * @return new pipeline with the stage appended
+     */
+    @SuppressWarnings("unchecked")
+    public Pipeline<S, T> filter(Predicate<? super T> predicate) {
+        return new Pipeline<>(mapper, source, value -> {
+            final Object current = stages.apply(value);
+            return current == FILTERED || !predicate.test((T) current) ? FILTERED : current;
+        });
+    }
+
+    /**
+     * Executes pipeline.
+     *
+     * @return list of elements that passed all stages, in source order
+     * @throws InterruptedException if calling thread was interrupted
+     */
+    public List<T> toList() throws InterruptedException {
+        return compact(mapper.map(stages, source));
+    }
+
+    /**
+     * Executes pipeline asynchronously.
+     *
+     * @return future completed with list of elements that passed all stages, in source order
+     */
+    public CompletableFuture<List<T>> toListAsync() {
+        return mapper.mapAsync(stages, source).thenApply(Pipeline::compact);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> compact(List<Object> values) {
+        final List<T> result = new ArrayList<>(values.size());
+        for (final Object value : values) {
+            if (value != FILTERED) {
+                result.add((T) value);
+            }
+        }
+        return result;
+    }
+}
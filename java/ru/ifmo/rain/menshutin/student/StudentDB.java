@@ -10,9 +10,82 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Student queries over streams.
+ * <p>
+ * A database created for a collection of students indexes it once: students are presorted by id
+ * and by name, and grouped by group, first name and last name. Queries on that very collection instance
+ * are answered from the indexes, queries on any other collection scan it as usual.
+ * The indexed collection must not be modified afterwards.
+ */
 public class StudentDB implements StudentGroupQuery {
+    private final Index index;
 
-    private Stream<Map.Entry<String, List<Student>>> getGroupStream(Collection<Student> collection) {
+    public StudentDB() {
+        index = null;
+    }
+
+    /**
+     * Creates database with indexes over the given students.
+     *
+     * @param students students to index
+     */
+    public StudentDB(Collection<Student> students) {
+        index = new Index(students);
+    }
+
+    private static class Index {
+        final Collection<Student> students;
+        final List<Student> byId;
+        final List<Student> byName;
+        final Map<String, List<Student>> byGroup;
+        final Map<String, List<Student>> byFirstName;
+        final Map<String, List<Student>> byLastName;
+        final List<Group> groupsByName;
+        final List<Group> groupsById;
+        final String largestGroup;
+        final String largestGroupFirstName;
+
+        Index(Collection<Student> students) {
+            this.students = students;
+            byId = sortStudentsBy(students, Student::compareTo);
+            byName = sortStudentsBy(students, COMPARATOR_BY_NAME);
+            byGroup = groupBy(byName, Student::getGroup);
+            byFirstName = groupBy(byName, Student::getFirstName);
+            byLastName = groupBy(byName, Student::getLastName);
+
+            groupsByName = toGroups(byGroup);
+            groupsById = toGroups(groupBy(byId, Student::getGroup));
+            largestGroup = getLargestGroupBy(groupsByName.stream(), LARGEST_GROUP);
+            largestGroupFirstName = getLargestGroupBy(groupsByName.stream(), LARGEST_GROUP_FIRST_NAME);
+        }
+
+        boolean covers(Collection<Student> collection) {
+            return collection == students;
+        }
+
+        private static Map<String, List<Student>> groupBy(List<Student> sorted, Function<Student, String> key) {
+            return sorted.stream().collect(Collectors.groupingBy(key));
+        }
+
+        private static List<Group> toGroups(Map<String, List<Student>> groups) {
+            return groups.entrySet()
+                    .stream()
+                    .map(entry -> new Group(entry.getKey(), entry.getValue()))
+                    .sorted(Comparator.comparing(Group::getName))
+                    .collect(Collectors.toList());
+        }
+
+        List<Student> find(Map<String, List<Student>> map, String key) {
+            return new ArrayList<>(map.getOrDefault(key, Collections.emptyList()));
+        }
+    }
+
+    private boolean indexed(Collection<Student> collection) {
+        return index != null && index.covers(collection);
+    }
+
+    private static Stream<Map.Entry<String, List<Student>>> getGroupStream(Collection<Student> collection) {
         return collection
                 .stream()
                 .collect(Collectors.groupingBy(Student::getGroup))
@@ -20,7 +93,7 @@ public class StudentDB implements StudentGroupQuery {
                 .stream();
     }
 
-    private List<Group> getGroupsBy(Collection<Student> collection, Comparator<Student> comparator) {
+    private static List<Group> getGroupsBy(Collection<Student> collection, Comparator<Student> comparator) {
         return getGroupStream(collection)
                 .map(mapEntry -> new Group(mapEntry.getKey(), sortStudentsBy(mapEntry.getValue(), comparator)))
                 .sorted(Comparator.comparing(Group::getName))
@@ -29,36 +102,53 @@ public class StudentDB implements StudentGroupQuery {
 
     @Override
     public List<Group> getGroupsByName(Collection<Student> collection) {
+        if (indexed(collection)) {
+            return new ArrayList<>(index.groupsByName);
+        }
         return getGroupsBy(collection, COMPARATOR_BY_NAME);
     }
 
     @Override
     public List<Group> getGroupsById(Collection<Student> collection) {
+        if (indexed(collection)) {
+            return new ArrayList<>(index.groupsById);
+        }
         return getGroupsBy(collection, Student::compareTo);
     }
 
-    private String getLargestGroupBy(Collection<Student> collection, Comparator<Group> comparator) {
-        return getGroupStream(collection)
-                .map(entry -> new Group(entry.getKey(), entry.getValue()))
+    private static String getLargestGroupBy(Stream<Group> groups, Comparator<Group> comparator) {
+        return groups
                 .max(comparator)
                 .map(Group::getName)
                 .orElse("");
     }
 
+    private static Stream<Group> toGroupStream(Collection<Student> collection) {
+        return getGroupStream(collection).map(entry -> new Group(entry.getKey(), entry.getValue()));
+    }
+
+    private final static Comparator<Group> LARGEST_GROUP = Comparator
+            .<Group, Integer>comparing(group -> group.getStudents().size())
+            .thenComparing(Comparator.comparing(Group::getName).reversed());
+
+    private final static Comparator<Group> LARGEST_GROUP_FIRST_NAME = Comparator
+            .<Group, Integer>comparing(group -> distinctFirstNames(group.getStudents()).size())
+            .thenComparing(Comparator.comparing(Group::getName).reversed());
+
     @Override
     public String getLargestGroup(Collection<Student> collection) {
-        return getLargestGroupBy(collection,
-                                 Comparator
-                                         .<Group, Integer>comparing(group -> group.getStudents().size())
-                                         .thenComparing(Comparator.comparing(Group::getName).reversed()));
+        if (indexed(collection)) {
+            return index.largestGroup;
+        }
+        return getLargestGroupBy(toGroupStream(collection), LARGEST_GROUP);
     }
 
     @Override
     public String getLargestGroupFirstName(Collection<Student> collection) {
-        return getLargestGroupBy(collection,
-                                 Comparator
-                                         .<Group, Integer>comparing(group -> getDistinctFirstNames(group.getStudents()).size())
-                                         .thenComparing(Comparator.comparing(Group::getName).reversed()));
+        if (indexed(collection)) {
+            return index.largestGroupFirstName;
+        }
+        return getLargestGroupBy(toGroupStream(collection), LARGEST_GROUP_FIRST_NAME);
     }
 
     private List<String> getListOfSomething(List<Student> list, Function<Student, String> mapFunction) {
@@ -96,6 +186,13 @@ public class StudentDB implements StudentGroupQuery {
 
     @Override
     public Set<String> getDistinctFirstNames(List<Student> list) {
+        if (indexed(list)) {
+            return new TreeSet<>(index.byFirstName.keySet());
+        }
+        return distinctFirstNames(list);
+    }
+
+    private static Set<String> distinctFirstNames(List<Student> list) {
         return list
                 .stream()
                 .map(Student::getFirstName)
@@ -104,6 +201,9 @@ public class StudentDB implements StudentGroupQuery {
 
     @Override
     public String getMinStudentFirstName(List<Student> list) {
+        if (indexed(list)) {
+            return index.byId.isEmpty() ? "" : index.byId.get(0).getFirstName();
+        }
         return list
                 .stream()
                 .min(Student::compareTo)
@@ -111,7 +211,7 @@ public class StudentDB implements StudentGroupQuery {
                 .orElse("");
     }
 
-    private List<Student> sortStudentsBy(Collection<Student> collection, Comparator<Student> comparator) {
+    private static List<Student> sortStudentsBy(Collection<Student> collection, Comparator<Student> comparator) {
         return collection
                 .stream()
                 .sorted(comparator)
@@ -120,11 +220,17 @@ public class StudentDB implements StudentGroupQuery {
 
     @Override
     public List<Student> sortStudentsById(Collection<Student> collection) {
+        if (indexed(collection)) {
+            return new ArrayList<>(index.byId);
+        }
         return sortStudentsBy(collection, Student::compareTo);
     }
 
     @Override
     public List<Student> sortStudentsByName(Collection<Student> collection) {
+        if (indexed(collection)) {
+            return new ArrayList<>(index.byName);
+        }
         return sortStudentsBy(collection, COMPARATOR_BY_NAME);
     }
 
@@ -144,22 +250,34 @@ public class StudentDB implements StudentGroupQuery {
 
     @Override
     public List<Student> findStudentsByFirstName(Collection<Student> collection, String s) {
+        if (indexed(collection)) {
+            return index.find(index.byFirstName, s);
+        }
         return findStudentBy(collection, Student::getFirstName, s);
     }
 
     @Override
     public List<Student> findStudentsByLastName(Collection<Student> collection, String s) {
+        if (indexed(collection)) {
+            return index.find(index.byLastName, s);
+        }
         return findStudentBy(collection, Student::getLastName, s);
     }
 
     @Override
     public List<Student> findStudentsByGroup(Collection<Student> collection, String s) {
+        if (indexed(collection)) {
+            return index.find(index.byGroup, s);
+        }
         return findStudentBy(collection, Student::getGroup, s);
     }
 
     @Override
     public Map<String, String> findStudentNamesByGroup(Collection<Student> collection, String s) {
-        return collection
+        final Collection<Student> students = indexed(collection)
+                ? index.byGroup.getOrDefault(s, Collections.emptyList())
+                : collection;
+        return students
                 .stream()
                 .filter(student -> student.getGroup().equals(s))
                 .collect(Collectors.toMap(Student::getLastName,